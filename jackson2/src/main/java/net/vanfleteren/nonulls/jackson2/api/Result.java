@@ -1,6 +1,7 @@
 package net.vanfleteren.nonulls.jackson2.api;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
+import net.vanfleteren.nonulls.validator.NullReport;
 import net.vanfleteren.nonulls.validator.NullsFoundException;
 
 import java.util.Objects;
@@ -34,7 +35,14 @@ public sealed interface Result<T> {
      * A Failure because of nulls found in the resulting graph.
      */
     static <T> Result<T> nullsFound(NullsFoundException exception) {
-        return new NullsFound<>(exception);
+        return new NullsFound<>(exception.getReport());
+    }
+
+    /**
+     * A Failure because of nulls found in the resulting graph, as reported by the validator.
+     */
+    static <T> Result<T> nullsFound(NullReport report) {
+        return new NullsFound<>(report);
     }
 
     /**
@@ -73,6 +81,22 @@ public sealed interface Result<T> {
 
     record InvalidJson<T>(JsonProcessingException exception) implements Failure<T> {}
 
-    record NullsFound<T>(NullsFoundException exception) implements Failure<T> {}
+    /**
+     * A Failure because of nulls found in the resulting graph, see the report for where they were found.
+     */
+    record NullsFound<T>(NullReport report) implements Failure<T> {
+        public NullsFound {
+            Objects.requireNonNull(report);
+        }
+
+        /**
+         * A new exception for the nulls in the report, without a stack trace: it wasn't thrown from anywhere.
+         * Every call creates a new exception, use {@link #report()} to only look at the nulls.
+         */
+        @Override
+        public NullsFoundException exception() {
+            return new NullsFoundException(report, false);
+        }
+    }
 
 }
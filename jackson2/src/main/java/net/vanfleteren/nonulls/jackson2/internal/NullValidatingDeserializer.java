@@ -6,6 +6,7 @@ import com.fasterxml.jackson.databind.JsonDeserializer;
 import com.fasterxml.jackson.databind.JsonMappingException;
 import com.fasterxml.jackson.databind.deser.ResolvableDeserializer;
 import com.fasterxml.jackson.databind.deser.std.StdDeserializer;
+import net.vanfleteren.nonulls.validator.NullReport;
 import net.vanfleteren.nonulls.validator.NullValidator;
 import net.vanfleteren.nonulls.validator.NullsFoundException;
 
@@ -24,11 +25,11 @@ public final class NullValidatingDeserializer<T> extends StdDeserializer<T> impl
     public T deserialize(JsonParser p, DeserializationContext ctxt) throws IOException {
         T result = defaultDeserializer.deserialize(p, ctxt);
 
-        try {
-            NullValidator.assertNoNulls(result);
-        } catch (NullsFoundException e) {
-            String message = "Null validation failed: " + e.getMessage();
-            throw JsonMappingException.from(p, message, e);
+        NullReport report = NullValidator.validate(result);
+        if (report.hasNulls() || report.isTruncated()) {
+            // the cause doesn't need a stack trace of its own, it's the same as the one of the exception thrown
+            NullsFoundException e = new NullsFoundException(report, false);
+            throw JsonMappingException.from(p, "Null validation failed: " + e.getMessage(), e);
         }
 
         return result;
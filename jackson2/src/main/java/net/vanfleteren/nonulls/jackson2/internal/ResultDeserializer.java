@@ -7,11 +7,12 @@ import com.fasterxml.jackson.databind.*;
 import com.fasterxml.jackson.databind.deser.ContextualDeserializer;
 import com.fasterxml.jackson.databind.deser.std.StdDeserializer;
 import net.vanfleteren.nonulls.jackson2.api.Result;
+import net.vanfleteren.nonulls.validator.NullReport;
 import net.vanfleteren.nonulls.validator.NullValidator;
-import net.vanfleteren.nonulls.validator.NullsFoundException;
 import org.jspecify.annotations.Nullable;
 
 import java.io.IOException;
+import java.util.Objects;
 
 /**
  * Deserializer for Result objects.
@@ -42,11 +43,14 @@ public final class ResultDeserializer<T> extends StdDeserializer<Result<T>> impl
         try {
             T resultcontent = (T)elementDeserializer.deserialize(p, ctxt);
 
-            return Result.success(NullValidator.assertNoNulls(resultcontent));
+            // a report rather than an exception, there is nothing to throw
+            NullReport report = NullValidator.validate(resultcontent);
+            if (report.hasNulls() || report.isTruncated()) {
+                return Result.nullsFound(report);
+            }
+            return Result.success(Objects.requireNonNull(resultcontent));
         } catch (JsonProcessingException e) {
             return Result.invalidJson(e);
-        } catch (NullsFoundException e) {
-            return Result.nullsFound(e);
         }
     }
 
@@ -8,6 +8,7 @@ import net.vanfleteren.nonulls.jackson2.tests.support.JacksonTest;
 import org.jspecify.annotations.NonNull;
 import org.junit.jupiter.api.Test;
 
+import java.util.List;
 import java.util.Objects;
 
 import static org.assertj.core.api.AssertionsForClassTypes.assertThat;
@@ -50,6 +51,9 @@ public class ResultDeserializerTest extends JacksonTest {
        Result<Data> res =  readNonNull(noNullDefault, json, new TypeReference<>(){});
 
        assertThat(res).isInstanceOf(Result.NullsFound.class);
+       Result.NullsFound<Data> nullsFound = (Result.NullsFound<Data>) res;
+       assertThat(nullsFound.report().nullPaths()).isEqualTo(List.of("root.s"));
+       assertThat(nullsFound.exception().getNullPaths()).isEqualTo(List.of("root.s"));
     }
 
     static <T> @NonNull T readNonNull(ObjectMapper m, String json, TypeReference<T> type) throws Exception {
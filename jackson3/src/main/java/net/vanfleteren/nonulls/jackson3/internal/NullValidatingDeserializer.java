@@ -8,6 +8,7 @@ import tools.jackson.databind.DeserializationContext;
 import tools.jackson.databind.JavaType;
 import tools.jackson.databind.ValueDeserializer;
 import tools.jackson.databind.deser.std.StdDeserializer;
+import net.vanfleteren.nonulls.validator.NullReport;
 import net.vanfleteren.nonulls.validator.NullValidator;
 import net.vanfleteren.nonulls.validator.NullsFoundException;
 import tools.jackson.databind.exc.JsonNodeException;
@@ -27,11 +28,11 @@ public final class NullValidatingDeserializer<T> extends StdDeserializer<T>  {
     public T deserialize(JsonParser p, DeserializationContext ctxt) {
         T result = defaultDeserializer.deserialize(p, ctxt);
 
-        try {
-            NullValidator.assertNoNulls(result);
-        } catch (NullsFoundException e) {
-            String message = "Null validation failed: " + e.getMessage();
-            throw JsonNodeException.from(p, message, e);
+        NullReport report = NullValidator.validate(result);
+        if (report.hasNulls() || report.isTruncated()) {
+            // the cause doesn't need a stack trace of its own, it's the same as the one of the exception thrown
+            NullsFoundException e = new NullsFoundException(report, false);
+            throw JsonNodeException.from(p, "Null validation failed: " + e.getMessage(), e);
         }
 
         return result;
@@ -1,8 +1,8 @@
 package net.vanfleteren.nonulls.jackson3.internal;
 
 import net.vanfleteren.nonulls.jackson3.api.Result;
+import net.vanfleteren.nonulls.validator.NullReport;
 import net.vanfleteren.nonulls.validator.NullValidator;
-import net.vanfleteren.nonulls.validator.NullsFoundException;
 import org.jspecify.annotations.Nullable;
 import tools.jackson.core.JacksonException;
 import tools.jackson.core.JsonParser;
@@ -11,6 +11,8 @@ import tools.jackson.databind.DeserializationContext;
 import tools.jackson.databind.JavaType;
 import tools.jackson.databind.deser.std.StdDeserializer;
 
+import java.util.Objects;
+
 /**
  * Deserializer for Result objects.
  * Will deserialize expected values and wrap them in a Result.InvalidJson or Result.NullsFound object if there is invalid JSON or nulls found.
@@ -40,11 +42,14 @@ public final class ResultDeserializer<T> extends StdDeserializer<Result<T>> {
         try {
             T resultcontent = (T)elementDeserializer.deserialize(p, ctxt);
 
-            return Result.success(NullValidator.assertNoNulls(resultcontent));
+            // a report rather than an exception, there is nothing to throw
+            NullReport report = NullValidator.validate(resultcontent);
+            if (report.hasNulls() || report.isTruncated()) {
+                return Result.nullsFound(report);
+            }
+            return Result.success(Objects.requireNonNull(resultcontent));
         } catch (JacksonException e) {
             return Result.invalidJson(e);
-        } catch (NullsFoundException e) {
-            return Result.nullsFound(e);
         }
     }
 
@@ -8,6 +8,7 @@ import org.junit.jupiter.api.Test;
 import tools.jackson.core.type.TypeReference;
 import tools.jackson.databind.ObjectMapper;
 
+import java.util.List;
 import java.util.Objects;
 
 import static org.assertj.core.api.AssertionsForClassTypes.assertThat;
@@ -63,6 +64,9 @@ public class ResultDeserializerTest extends JacksonTest {
        Result<Data> res =  readNonNull(noNullDefault, json, new TypeReference<>(){});
 
        assertThat(res).isInstanceOf(Result.NullsFound.class);
+       Result.NullsFound<Data> nullsFound = (Result.NullsFound<Data>) res;
+       assertThat(nullsFound.report().nullPaths()).isEqualTo(List.of("root.s"));
+       assertThat(nullsFound.exception().getNullPaths()).isEqualTo(List.of("root.s"));
     }
 
     static <T> @NonNull T readNonNull(ObjectMapper m, String json, TypeReference<T> type) throws Exception {
@@ -0,0 +1,42 @@
+package net.vanfleteren.nonulls.validator.hibernate.spi;
+
+import net.vanfleteren.nonulls.validator.spi.LazyBoundary;
+import org.hibernate.Hibernate;
+import org.hibernate.collection.spi.PersistentCollection;
+import org.hibernate.proxy.HibernateProxy;
+
+/**
+ * Keeps the validator from loading lazy associations of Hibernate entities:
+ * uninitialized proxies and persistent collections are not walked.
+ * An initialized proxy is walked through the entity behind it, its own fields are never set.
+ */
+public class HibernateLazyBoundary implements LazyBoundary {
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean canHandle(Class<?> clazz) {
+        return HibernateProxy.class.isAssignableFrom(clazz) || PersistentCollection.class.isAssignableFrom(clazz);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean isInitialized(Object obj) {
+        return Hibernate.isInitialized(obj);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Object unwrap(Object obj) {
+        if (obj instanceof HibernateProxy proxy) {
+            // already initialized, so this doesn't load anything
+            return proxy.getHibernateLazyInitializer().getImplementation();
+        }
+        return obj;
+    }
+}
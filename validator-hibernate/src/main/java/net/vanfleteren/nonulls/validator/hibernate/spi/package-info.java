@@ -0,0 +1,2 @@
+@org.jspecify.annotations.NullMarked
+package net.vanfleteren.nonulls.validator.hibernate.spi;
\ No newline at end of file
@@ -0,0 +1,162 @@
+package net.vanfleteren.nonulls.validator.hibernate.spi;
+
+import jakarta.persistence.*;
+import net.vanfleteren.nonulls.validator.ConfiguredNullValidator;
+import net.vanfleteren.nonulls.validator.NullReport;
+import net.vanfleteren.nonulls.validator.NullValidator;
+import net.vanfleteren.nonulls.validator.UninitializedPolicy;
+import org.hibernate.Hibernate;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.cfg.Configuration;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HibernateLazyBoundaryTest {
+
+    @Entity(name = "Customer")
+    static class Customer {
+        @Id
+        Long id;
+        String name;
+        String email;
+
+        Customer() {
+        }
+
+        Customer(Long id, String name, String email) {
+            this.id = id;
+            this.name = name;
+            this.email = email;
+        }
+    }
+
+    @Entity(name = "PurchaseOrder")
+    static class PurchaseOrder {
+        @Id
+        Long id;
+        String reference;
+        @ManyToOne(fetch = FetchType.LAZY)
+        Customer customer;
+        @OneToMany(mappedBy = "order", cascade = CascadeType.ALL)
+        @OrderColumn
+        List<OrderLine> lines = new ArrayList<>();
+
+        PurchaseOrder() {
+        }
+
+        PurchaseOrder(Long id, String reference, Customer customer) {
+            this.id = id;
+            this.reference = reference;
+            this.customer = customer;
+        }
+    }
+
+    @Entity(name = "OrderLine")
+    static class OrderLine {
+        @Id
+        Long id;
+        String sku;
+        @ManyToOne(fetch = FetchType.LAZY)
+        PurchaseOrder order;
+
+        OrderLine() {
+        }
+
+        OrderLine(Long id, String sku, PurchaseOrder order) {
+            this.id = id;
+            this.sku = sku;
+            this.order = order;
+        }
+    }
+
+    private static SessionFactory sessionFactory;
+
+    @BeforeAll
+    static void setUp() {
+        sessionFactory = new Configuration()
+                .addAnnotatedClass(Customer.class)
+                .addAnnotatedClass(PurchaseOrder.class)
+                .addAnnotatedClass(OrderLine.class)
+                .setProperty("hibernate.connection.url", "jdbc:h2:mem:nonulls;DB_CLOSE_DELAY=-1")
+                .setProperty("hibernate.hbm2ddl.auto", "create-drop")
+                .setProperty("hibernate.generate_statistics", "true")
+                .buildSessionFactory();
+        sessionFactory.inTransaction(session -> {
+            Customer customer = new Customer(1L, "customer", null);
+            session.persist(customer);
+            PurchaseOrder order = new PurchaseOrder(1L, "o1", customer);
+            order.lines.add(new OrderLine(1L, "sku", order));
+            order.lines.add(new OrderLine(2L, null, order));
+            session.persist(order);
+        });
+    }
+
+    @AfterAll
+    static void tearDown() {
+        sessionFactory.close();
+    }
+
+    private static long statements() {
+        return sessionFactory.getStatistics().getPrepareStatementCount();
+    }
+
+    @Test
+    void uninitializedAssociations_areSkipped_withoutLoadingThem() {
+        try (Session session = sessionFactory.openSession()) {
+            PurchaseOrder order = session.find(PurchaseOrder.class, 1L);
+            long before = statements();
+
+            NullReport report = NullValidator.validate(order);
+
+            assertTrue(report.nullPaths().isEmpty());
+            assertEquals(before, statements());
+            assertFalse(Hibernate.isInitialized(order.customer));
+            assertFalse(Hibernate.isInitialized(order.lines));
+        }
+    }
+
+    @Test
+    void uninitializedAssociations_areReported_whenConfigured() {
+        ConfiguredNullValidator validator = NullValidator.builder().uninitialized(UninitializedPolicy.REPORT).build();
+        try (Session session = sessionFactory.openSession()) {
+            PurchaseOrder order = session.find(PurchaseOrder.class, 1L);
+            long before = statements();
+
+            assertEquals(List.of("root.customer", "root.lines"), validator.findNullPaths(order));
+            assertEquals(before, statements());
+        }
+    }
+
+    @Test
+    void initializedAssociations_areWalked() {
+        try (Session session = sessionFactory.openSession()) {
+            PurchaseOrder order = session.find(PurchaseOrder.class, 1L);
+            Hibernate.initialize(order.customer);
+            Hibernate.initialize(order.lines);
+            long before = statements();
+
+            assertEquals(List.of("root.customer.email", "root.lines[1].sku"), NullValidator.findNullPaths(order));
+            assertEquals(before, statements());
+        }
+    }
+
+    @Test
+    void uninitializedRoot_isSkipped() {
+        try (Session session = sessionFactory.openSession()) {
+            Customer customer = session.getReference(Customer.class, 1L);
+            long before = statements();
+
+            assertTrue(NullValidator.hasNoNulls(customer));
+            assertEquals(List.of("root"), NullValidator.builder().uninitialized(UninitializedPolicy.REPORT).build().findNullPaths(customer));
+            assertEquals(before, statements());
+            assertFalse(Hibernate.isInitialized(customer));
+        }
+    }
+}
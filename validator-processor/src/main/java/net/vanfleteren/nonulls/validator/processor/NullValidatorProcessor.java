@@ -0,0 +1,249 @@
+package net.vanfleteren.nonulls.validator.processor;
+
+import net.vanfleteren.nonulls.validator.GenerateNullValidator;
+import net.vanfleteren.nonulls.validator.spi.GeneratedNullValidator;
+import org.jspecify.annotations.Nullable;
+
+import javax.annotation.processing.*;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.*;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
+import javax.tools.Diagnostic;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.*;
+
+/**
+ * Generates a reflection-free {@link GeneratedNullValidator} for every record or class annotated with
+ * {@link GenerateNullValidator}, or listed (comma separated, fully qualified) in the {@value #TYPES_OPTION} option.
+ * <p>
+ * Record components are read through their accessors, fields are read directly.
+ * A class with a field that isn't accessible from its package, like a private one, or declared in a superclass that isn't, gets no generated validator,
+ * since a getter isn't guaranteed to return the field as it is. It is validated through reflection instead, with a warning naming the field,
+ * as build tools don't show notes by default and the annotation would silently do nothing.
+ */
+@SupportedAnnotationTypes("net.vanfleteren.nonulls.validator.GenerateNullValidator")
+@SupportedOptions(NullValidatorProcessor.TYPES_OPTION)
+public final class NullValidatorProcessor extends AbstractProcessor {
+
+    /**
+     * Processor option listing additional types to generate a validator for, e.g. {@code -Anonulls.validator.types=com.example.Order}.
+     */
+    public static final String TYPES_OPTION = "nonulls.validator.types";
+
+    private final Set<String> generated = new HashSet<>();
+    private boolean configuredTypesProcessed = false;
+
+    @Override
+    public Set<String> getSupportedAnnotationTypes() {
+        // types listed in the option don't need the annotation, so we have to be invoked even when it's absent
+        return configuredTypes().isEmpty() ? super.getSupportedAnnotationTypes() : Set.of("*");
+    }
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+        if (!configuredTypesProcessed) {
+            configuredTypesProcessed = true;
+            for (String name : configuredTypes()) {
+                TypeElement type = processingEnv.getElementUtils().getTypeElement(name);
+                if (type == null) {
+                    processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, "Type " + name + " listed in -A" + TYPES_OPTION + " was not found");
+                } else {
+                    generate(type);
+                }
+            }
+        }
+        for (Element element : roundEnv.getElementsAnnotatedWith(GenerateNullValidator.class)) {
+            if (element instanceof TypeElement type) {
+                generate(type);
+            }
+        }
+        return false;
+    }
+
+    private List<String> configuredTypes() {
+        String option = processingEnv.getOptions().get(TYPES_OPTION);
+        if (option == null || option.isBlank()) {
+            return List.of();
+        }
+        return Arrays.stream(option.split(",")).map(String::trim).filter(name -> !name.isEmpty()).toList();
+    }
+
+    private void generate(TypeElement type) {
+        if (!generated.add(type.getQualifiedName().toString())) {
+            return;
+        }
+        if (type.getKind() != ElementKind.RECORD && type.getKind() != ElementKind.CLASS || type.getModifiers().contains(Modifier.ABSTRACT)) {
+            error(type, "@GenerateNullValidator is only supported on records and concrete classes");
+            return;
+        }
+        for (Element enclosing = type; enclosing instanceof TypeElement; enclosing = enclosing.getEnclosingElement()) {
+            if (enclosing.getModifiers().contains(Modifier.PRIVATE)) {
+                error(type, "@GenerateNullValidator is not supported on private types");
+                return;
+            }
+        }
+
+        PackageElement packageElement = processingEnv.getElementUtils().getPackageOf(type);
+        List<String> names = new ArrayList<>();
+        List<String> reads = new ArrayList<>();
+        boolean accessible = type.getKind() == ElementKind.RECORD
+                ? collectRecordComponents(type, names, reads)
+                : collectFields(type, packageElement, names, reads);
+        if (accessible) {
+            write(type, packageElement, names, reads);
+        }
+    }
+
+    private boolean collectRecordComponents(TypeElement type, List<String> names, List<String> reads) {
+        for (RecordComponentElement component : type.getRecordComponents()) {
+            if (component.asType().getKind().isPrimitive()) {
+                continue;
+            }
+            names.add(component.getSimpleName().toString());
+            reads.add("obj." + component.getAccessor().getSimpleName() + "()");
+        }
+        return true;
+    }
+
+    /**
+     * Collects the fields in the same order as the reflective validator: declared fields of the type first, then those of its superclasses.
+     *
+     * @return false if a field isn't accessible from the generated validator
+     */
+    private boolean collectFields(TypeElement type, PackageElement packageElement, List<String> names, List<String> reads) {
+        for (TypeElement current = type; current != null && !current.getQualifiedName().contentEquals("java.lang.Object"); current = superclass(current)) {
+            String target = current == type ? "obj" : "((" + erasure(current) + ") obj)";
+            for (VariableElement field : ElementFilter.fieldsIn(current.getEnclosedElements())) {
+                if (field.getModifiers().contains(Modifier.STATIC) || field.asType().getKind().isPrimitive()) {
+                    continue;
+                }
+                String name = field.getSimpleName().toString();
+                if (!isVisible(field, packageElement)) {
+                    skip(type, field, "field " + name + " of " + current.getQualifiedName() + " is not accessible from package " + packageElement.getQualifiedName());
+                    return false;
+                }
+                if (current != type && !isAccessible(current, packageElement)) {
+                    // the field is read through a cast to the class declaring it
+                    skip(type, field, "field " + name + " is declared in " + current.getQualifiedName() + ", which is not accessible from package "
+                            + packageElement.getQualifiedName());
+                    return false;
+                }
+                names.add(name);
+                reads.add(target + "." + name);
+            }
+        }
+        return true;
+    }
+
+    private @Nullable TypeElement superclass(TypeElement type) {
+        TypeMirror superclass = type.getSuperclass();
+        if (superclass.getKind() != TypeKind.DECLARED) {
+            return null;
+        }
+        return (TypeElement) ((DeclaredType) superclass).asElement();
+    }
+
+    private boolean isVisible(Element member, PackageElement packageElement) {
+        Set<Modifier> modifiers = member.getModifiers();
+        if (modifiers.contains(Modifier.PUBLIC)) {
+            return true;
+        }
+        return !modifiers.contains(Modifier.PRIVATE)
+                && processingEnv.getElementUtils().getPackageOf(member).equals(packageElement);
+    }
+
+    /**
+     * Whether the type, and every type it is nested in, can be named from the given package.
+     */
+    private boolean isAccessible(TypeElement type, PackageElement packageElement) {
+        for (Element current = type; current instanceof TypeElement; current = current.getEnclosingElement()) {
+            if (!isVisible(current, packageElement)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private String erasure(TypeElement type) {
+        return processingEnv.getTypeUtils().erasure(type.asType()).toString();
+    }
+
+    private void write(TypeElement type, PackageElement packageElement, List<String> names, List<String> reads) {
+        String packageName = packageElement.isUnnamed() ? "" : packageElement.getQualifiedName().toString();
+        String simpleName = flatName(type) + GeneratedNullValidator.SUFFIX;
+        String qualifiedName = packageName.isEmpty() ? simpleName : packageName + "." + simpleName;
+        String typeName = type.getQualifiedName() + wildcards(type);
+
+        StringBuilder source = new StringBuilder();
+        if (!packageName.isEmpty()) {
+            source.append("package ").append(packageName).append(";\n\n");
+        }
+        source.append("// Generated by ").append(NullValidatorProcessor.class.getName()).append("\n");
+        source.append("public final class ").append(simpleName)
+                .append(" implements ").append(GeneratedNullValidator.class.getName()).append("<").append(typeName).append("> {\n\n");
+        source.append("    private static final java.util.List<String> PROPERTY_NAMES = java.util.List.of(");
+        for (int i = 0; i < names.size(); i++) {
+            source.append(i == 0 ? "" : ", ").append('"').append(names.get(i)).append('"');
+        }
+        source.append(");\n\n");
+        source.append("    @Override\n");
+        source.append("    @SuppressWarnings({\"unchecked\", \"rawtypes\"})\n");
+        source.append("    public Class<").append(typeName).append("> type() {\n");
+        source.append("        return (Class) ").append(type.getQualifiedName()).append(".class;\n");
+        source.append("    }\n\n");
+        source.append("    @Override\n");
+        source.append("    public java.util.List<String> propertyNames() {\n");
+        source.append("        return PROPERTY_NAMES;\n");
+        source.append("    }\n\n");
+        source.append("    @Override\n");
+        source.append("    public void readProperties(").append(typeName).append(" obj, Object[] values) {\n");
+        for (int i = 0; i < reads.size(); i++) {
+            source.append("        values[").append(i).append("] = ").append(reads.get(i)).append(";\n");
+        }
+        source.append("    }\n");
+        source.append("}\n");
+
+        try (Writer writer = processingEnv.getFiler().createSourceFile(qualifiedName, type).openWriter()) {
+            writer.write(source.toString());
+        } catch (IOException e) {
+            error(type, "Failed to write " + qualifiedName + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * The simple names of the type and its enclosing types, joined with an underscore.
+     */
+    private static String flatName(TypeElement type) {
+        Deque<String> names = new ArrayDeque<>();
+        for (Element current = type; current instanceof TypeElement; current = current.getEnclosingElement()) {
+            names.addFirst(current.getSimpleName().toString());
+        }
+        return String.join("_", names);
+    }
+
+    private static String wildcards(TypeElement type) {
+        int count = type.getTypeParameters().size();
+        return count == 0 ? "" : "<" + String.join(", ", Collections.nCopies(count, "?")) + ">";
+    }
+
+    /**
+     * Warns that no validator is generated for the type, because of the given element.
+     */
+    private void skip(TypeElement type, Element cause, String reason) {
+        processingEnv.getMessager().printMessage(Diagnostic.Kind.WARNING, "No null validator is generated for " + type.getQualifiedName()
+                + ", it is validated through reflection: " + reason, cause);
+    }
+
+    private void error(Element element, String message) {
+        processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, message, element);
+    }
+}
@@ -0,0 +1,2 @@
+@org.jspecify.annotations.NullMarked
+package net.vanfleteren.nonulls.validator.processor;
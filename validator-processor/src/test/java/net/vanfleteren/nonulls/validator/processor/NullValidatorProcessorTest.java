@@ -0,0 +1,217 @@
+package net.vanfleteren.nonulls.validator.processor;
+
+import net.vanfleteren.nonulls.validator.NullValidator;
+import net.vanfleteren.nonulls.validator.internal.ClassPlan;
+import net.vanfleteren.nonulls.validator.internal.GeneratedValidators;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import javax.tools.*;
+import java.io.File;
+import java.net.URI;
+import java.net.URLClassLoader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class NullValidatorProcessorTest {
+
+    @TempDir
+    Path output;
+
+    @Test
+    void annotatedRecord_getsGeneratedValidator_thatIsUsedByNullValidator() throws Exception {
+        Compilation compilation = compile(List.of(),
+                source("test.Order", """
+                        package test;
+                        @net.vanfleteren.nonulls.validator.GenerateNullValidator
+                        public record Order(String id, int count, java.util.List<Line> lines) {
+                            @net.vanfleteren.nonulls.validator.GenerateNullValidator
+                            public record Line(String sku) {}
+                        }
+                        """));
+
+        assertTrue(compilation.success(), compilation.diagnostics().toString());
+        assertTrue(Files.exists(output.resolve("test/OrderNullValidator.class")));
+        assertTrue(Files.exists(output.resolve("test/Order_LineNullValidator.class")));
+
+        try (URLClassLoader loader = compilation.classLoader()) {
+            Class<?> order = loader.loadClass("test.Order");
+            Class<?> line = loader.loadClass("test.Order$Line");
+            assertNotNull(GeneratedValidators.find(order));
+            assertNotNull(GeneratedValidators.find(line));
+
+            Object lineWithNull = line.getConstructors()[0].newInstance((Object) null);
+            Object value = order.getConstructors()[0].newInstance(null, 1, List.of(lineWithNull));
+
+            assertEquals(List.of("root.id", "root.lines[0].sku"), NullValidator.findNullPaths(value));
+        }
+    }
+
+    @Test
+    void configuredPojo_readsFieldsDirectly() throws Exception {
+        Compilation compilation = compile(List.of("-A" + NullValidatorProcessor.TYPES_OPTION + "=test.Customer"),
+                source("test.Base", """
+                        package test;
+                        public class Base {
+                            protected String id;
+                        }
+                        """),
+                source("test.Customer", """
+                        package test;
+                        public class Customer extends Base {
+                            String email;
+                            private boolean active;
+                            public String name;
+                        }
+                        """));
+
+        assertTrue(compilation.success(), compilation.diagnostics().toString());
+
+        try (URLClassLoader loader = compilation.classLoader()) {
+            Class<?> customer = loader.loadClass("test.Customer");
+            assertNotNull(GeneratedValidators.find(customer));
+
+            Object value = customer.getConstructor().newInstance();
+            assertEquals(List.of("root.email", "root.name", "root.id"), NullValidator.findNullPaths(value));
+        }
+    }
+
+    @Test
+    void generatedValidator_isUsedAtRuntime_andReportsTheSamePathsAsReflection() throws Exception {
+        JavaFileObject[] sources = {
+                source("test.Base", """
+                        package test;
+                        public class Base {
+                            java.util.Map<String, String> attributes = new java.util.HashMap<>(java.util.Collections.singletonMap("a", null));
+                        }
+                        """),
+                source("test.Shipment", """
+                        package test;
+                        @net.vanfleteren.nonulls.validator.GenerateNullValidator
+                        public class Shipment extends Base {
+                            String carrier;
+                            java.util.List<Parcel> parcels = java.util.Arrays.asList(new Parcel(null, 2), null);
+                            java.util.Optional<String> note = java.util.Optional.empty();
+                        }
+                        """),
+                source("test.Parcel", """
+                        package test;
+                        @net.vanfleteren.nonulls.validator.GenerateNullValidator
+                        public record Parcel(String label, int weight) {}
+                        """)};
+        Compilation generated = compile(List.of(), sources);
+        Compilation reflective = compileTo(output.resolve("reflective"), List.of("-proc:none"), sources);
+
+        assertTrue(generated.success(), generated.diagnostics().toString());
+        assertTrue(reflective.success(), reflective.diagnostics().toString());
+
+        try (URLClassLoader generatedLoader = generated.classLoader(); URLClassLoader reflectiveLoader = reflective.classLoader()) {
+            Class<?> shipment = generatedLoader.loadClass("test.Shipment");
+            Class<?> reflectiveShipment = reflectiveLoader.loadClass("test.Shipment");
+            assertNotNull(GeneratedValidators.find(shipment));
+            assertNull(GeneratedValidators.find(reflectiveShipment));
+
+            Object value = shipment.getConstructor().newInstance();
+            // the properties of a generated plan can only be read through the generated validator
+            assertThrows(IllegalAccessException.class, () -> ClassPlan.of(shipment).properties().getFirst().read(value));
+
+            List<String> expected = NullValidator.findNullPaths(reflectiveShipment.getConstructor().newInstance());
+            assertEquals(List.of("root.carrier", "root.parcels[0].label", "root.parcels[1]", "root.attributes[a]"), expected);
+            assertEquals(expected, NullValidator.findNullPaths(value));
+        }
+    }
+
+    @Test
+    void privateField_isValidatedThroughReflection() throws Exception {
+        Compilation compilation = compile(List.of(),
+                source("test.Hidden", """
+                        package test;
+                        @net.vanfleteren.nonulls.validator.GenerateNullValidator
+                        public class Hidden {
+                            private String secret;
+                            public String getSecret() { return "not the field"; }
+                        }
+                        """));
+
+        assertTrue(compilation.success(), compilation.diagnostics().toString());
+        assertTrue(compilation.diagnostics().stream()
+                .anyMatch(d -> d.getKind() == Diagnostic.Kind.WARNING && d.getMessage(null).contains("field secret of test.Hidden")));
+        assertFalse(Files.exists(output.resolve("test/HiddenNullValidator.class")));
+
+        try (URLClassLoader loader = compilation.classLoader()) {
+            Class<?> hidden = loader.loadClass("test.Hidden");
+            assertNull(GeneratedValidators.find(hidden));
+            assertEquals(List.of("root.secret"), NullValidator.findNullPaths(hidden.getConstructor().newInstance()));
+        }
+    }
+
+    @Test
+    void fieldOfASuperclassThatIsntAccessible_isValidatedThroughReflection() throws Exception {
+        Compilation compilation = compile(List.of(),
+                source("base.Base", """
+                        package base;
+                        class Base {
+                            public String id;
+                        }
+                        """),
+                source("base.Middle", """
+                        package base;
+                        public class Middle extends Base {
+                        }
+                        """),
+                source("test.Account", """
+                        package test;
+                        @net.vanfleteren.nonulls.validator.GenerateNullValidator
+                        public class Account extends base.Middle {
+                            public String owner;
+                        }
+                        """));
+
+        assertTrue(compilation.success(), compilation.diagnostics().toString());
+        assertTrue(compilation.diagnostics().stream()
+                .anyMatch(d -> d.getKind() == Diagnostic.Kind.WARNING && d.getMessage(null).contains("field id is declared in base.Base")));
+        assertFalse(Files.exists(output.resolve("test/AccountNullValidator.class")));
+
+        try (URLClassLoader loader = compilation.classLoader()) {
+            Class<?> account = loader.loadClass("test.Account");
+            assertNull(GeneratedValidators.find(account));
+            assertEquals(List.of("root.owner", "root.id"), NullValidator.findNullPaths(account.getConstructor().newInstance()));
+        }
+    }
+
+    private record Compilation(boolean success, List<Diagnostic<? extends JavaFileObject>> diagnostics, Path output) {
+        URLClassLoader classLoader() throws Exception {
+            return new URLClassLoader(new java.net.URL[]{output.toUri().toURL()}, NullValidatorProcessorTest.class.getClassLoader());
+        }
+    }
+
+    private Compilation compile(List<String> extraOptions, JavaFileObject... sources) {
+        return compileTo(output, extraOptions, sources);
+    }
+
+    private static Compilation compileTo(Path output, List<String> extraOptions, JavaFileObject... sources) {
+        JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        DiagnosticCollector<JavaFileObject> diagnostics = new DiagnosticCollector<>();
+        List<String> options = new ArrayList<>(List.of(
+                "-d", output.toString(),
+                "-s", output.toString(),
+                "-classpath", System.getProperty("java.class.path") + File.pathSeparator + output,
+                "-processor", NullValidatorProcessor.class.getName()));
+        options.addAll(extraOptions);
+        boolean success = compiler.getTask(null, null, diagnostics, options, null, List.of(sources)).call();
+        return new Compilation(success, diagnostics.getDiagnostics(), output);
+    }
+
+    private static JavaFileObject source(String className, String code) {
+        return new SimpleJavaFileObject(URI.create("string:///" + className.replace('.', '/') + ".java"), JavaFileObject.Kind.SOURCE) {
+            @Override
+            public CharSequence getCharContent(boolean ignoreEncodingErrors) {
+                return code;
+            }
+        };
+    }
+}
@@ -42,6 +42,7 @@ public class NullValidator {
 
     /**
      * Returns an Option with the value if there is no null in the graph, otherwise returns None.
+     * Stops looking as soon as a null is found.
      */
     public static <T> Option<T> whenNoNulls(@Nullable T value) {
         if(net.vanfleteren.nonulls.validator.NullValidator.hasNoNulls(value)) {
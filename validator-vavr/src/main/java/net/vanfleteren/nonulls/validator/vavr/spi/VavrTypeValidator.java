@@ -3,12 +3,12 @@ package net.vanfleteren.nonulls.validator.vavr.spi;
 import io.vavr.Value;
 import io.vavr.collection.Map;
 import io.vavr.collection.Traversable;
+import net.vanfleteren.nonulls.validator.NullPath;
+import net.vanfleteren.nonulls.validator.spi.IdentitySet;
+import net.vanfleteren.nonulls.validator.spi.NullSink;
 import net.vanfleteren.nonulls.validator.spi.RecursiveValidator;
 import net.vanfleteren.nonulls.validator.spi.TypeValidator;
 
-import java.util.List;
-import java.util.Set;
-
 public class VavrTypeValidator implements TypeValidator {
 
     /**
@@ -23,16 +23,16 @@ public class VavrTypeValidator implements TypeValidator {
      * {@inheritDoc}
      */
     @Override
-    public void validate(Object obj, String path, Set<Integer> visited, List<String> nullPaths, RecursiveValidator recursiveValidator) {
+    public void validate(Object obj, NullPath path, IdentitySet visited, NullSink nullSink, RecursiveValidator recursiveValidator) {
         switch (obj) {
             // Handle Vavr Map
             case Map<?, ?> map -> { // Vavr Map is a special kind of Traversable
                 int index = 0;
                 for (var entry : map) {
                     recursiveValidator.validate(entry._1(),
-                            path + ".key[" + index + "]", visited, nullPaths);
+                            path.mapKey(index), visited, nullSink);
                     recursiveValidator.validate(entry._2(),
-                            path + "[" + entry._1() + "]", visited, nullPaths);
+                            path.key(entry._1()), visited, nullSink);
                     index++;
                 }
             }
@@ -42,16 +42,16 @@ public class VavrTypeValidator implements TypeValidator {
                 int index = 0;
                 for (Object item : traversable) {
                     recursiveValidator.validate(item,
-                            path + "[" + index + "]", visited, nullPaths);
+                            path.index(index), visited, nullSink);
                     index++;
                 }
             }
             // Handle Vavr Value (Option, Try, etc.)
-            case Value<?> value -> value.forEach(item -> recursiveValidator.validate(item, path, visited, nullPaths));
+            case Value<?> value -> value.forEach(item -> recursiveValidator.validate(item, path, visited, nullSink));
             default -> {
                 // shouldn't happen, we don't handle other types
                 // but this is the safe fallback
-                recursiveValidator.validate(obj, path, visited, nullPaths);
+                recursiveValidator.validate(obj, path, visited, nullSink);
             }
         }
     }
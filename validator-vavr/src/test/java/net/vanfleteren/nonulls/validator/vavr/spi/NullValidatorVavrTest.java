@@ -3,11 +3,13 @@ package net.vanfleteren.nonulls.validator.vavr.spi;
 import io.vavr.collection.LinkedHashMap;
 import io.vavr.collection.List;
 import io.vavr.collection.Map;
+import io.vavr.collection.Stream;
 import io.vavr.control.Either;
 import io.vavr.control.Option;
 import lombok.AllArgsConstructor;
 import net.vanfleteren.nonulls.validator.vavr.NullValidator;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -101,4 +103,13 @@ public class NullValidatorVavrTest {
 
         assertTrue(NullValidator.assertNoNulls(holder).isSuccess());
     }
+
+    @Test
+    @Timeout(10)
+    void endlessVavrStream_withANull_stopsAtTheFirstNull() {
+        Stream<String> endless = Stream.iterate(0, i -> i + 1).map(i -> i == 3 ? null : "v" + i);
+
+        assertFalse(net.vanfleteren.nonulls.validator.NullValidator.hasNoNulls(endless));
+        assertEquals("root[3]", net.vanfleteren.nonulls.validator.NullValidator.findFirstNullPath(endless).orElseThrow());
+    }
 }
@@ -0,0 +1,475 @@
+package net.vanfleteren.nonulls.validator;
+
+import net.vanfleteren.nonulls.validator.internal.Limits;
+import net.vanfleteren.nonulls.validator.internal.Scope;
+import net.vanfleteren.nonulls.validator.internal.ScratchPool;
+import net.vanfleteren.nonulls.validator.internal.Traversal;
+import net.vanfleteren.nonulls.validator.internal.ValidatedCache;
+import net.vanfleteren.nonulls.validator.spi.NullSink;
+import org.jetbrains.annotations.Contract;
+import org.jspecify.annotations.Nullable;
+
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * A {@link NullValidator} with a specific configuration, created with {@link NullValidator#builder()}
+ * or one of the shortcuts like {@link NullValidator#parallel()}.
+ * <p>
+ * Validations can be bounded with limits on the number of nulls reported, the depth, the number of nodes and the time spent,
+ * so untrusted input has a predictable worst case. A validation that reaches a limit stops early, see {@link #validate(Object)}.
+ * <p>
+ * Instances are immutable and can be shared between threads.
+ */
+public final class ConfiguredNullValidator {
+
+    public static final class Builder {
+        boolean parallel = false;
+        int parallelThreshold = DEFAULT_PARALLEL_THRESHOLD;
+        @Nullable ForkJoinPool pool;
+        int maxReportedNulls = Integer.MAX_VALUE;
+        int maxDepth = Integer.MAX_VALUE;
+        long maxNodes = Long.MAX_VALUE;
+        @Nullable Duration timeout;
+        int validatedCacheSize = 0;
+        TraversalMode traversalMode = TraversalMode.CYCLIC;
+        boolean captureStackTrace = true;
+        @Nullable Scope scope;
+        UninitializedPolicy uninitialized = UninitializedPolicy.SKIP;
+        boolean hiddenClasses = true;
+
+        /**
+         * Whether large collections, object arrays and maps are split into chunks that are validated in parallel.
+         * The null paths are the same, and reported in the same order, as a sequential validation would report them.
+         * An object shared between elements that end up in different chunks is still validated by each of those chunks,
+         * only the nulls found in it first are reported.
+         * The chunks count their nodes together against {@link #maxNodes(long)}, however unevenly the nodes are spread over them.
+         */
+        public Builder parallel(boolean v) {
+            this.parallel = v;
+            return this;
+        }
+
+        /**
+         * The minimum number of elements a container needs to be validated in parallel.
+         */
+        public Builder parallelThreshold(int v) {
+            if (v < 2) {
+                throw new IllegalArgumentException("parallelThreshold should be at least 2, but was " + v);
+            }
+            this.parallelThreshold = v;
+            return this;
+        }
+
+        /**
+         * The pool used for parallel validation, defaults to the common pool.
+         */
+        public Builder pool(ForkJoinPool v) {
+            this.pool = Objects.requireNonNull(v, "pool");
+            return this;
+        }
+
+        /**
+         * The maximum number of null paths reported, the validation stops when it finds more.
+         */
+        public Builder maxReportedNulls(int v) {
+            if (v < 1) {
+                throw new IllegalArgumentException("maxReportedNulls should be at least 1, but was " + v);
+            }
+            this.maxReportedNulls = v;
+            return this;
+        }
+
+        /**
+         * The maximum depth of the objects that are inspected, the root has depth 0.
+         * Nulls directly inside the deepest inspected objects are still reported, deeper objects are skipped.
+         * Unlimited by default, except in the {@link TraversalMode#TREE} and {@link TraversalMode#DAG} modes.
+         */
+        public Builder maxDepth(int v) {
+            if (v < 0) {
+                throw new IllegalArgumentException("maxDepth should not be negative, but was " + v);
+            }
+            this.maxDepth = v;
+            return this;
+        }
+
+        /**
+         * The maximum number of objects (other than strings, numbers and other leaves) that are inspected,
+         * the validation stops when it finds more.
+         */
+        public Builder maxNodes(long v) {
+            if (v < 1) {
+                throw new IllegalArgumentException("maxNodes should be at least 1, but was " + v);
+            }
+            this.maxNodes = v;
+            return this;
+        }
+
+        /**
+         * The maximum time a single validation may take, the validation stops when it takes longer.
+         * The clock is only checked every so many objects, so a validation can take slightly longer.
+         */
+        public Builder timeout(Duration v) {
+            if (v.isNegative() || v.isZero()) {
+                throw new IllegalArgumentException("timeout should be positive, but was " + v);
+            }
+            this.timeout = v;
+            return this;
+        }
+
+        /**
+         * Remembers up to about this many immutable objects found to contain no nulls, so later validations can skip them.
+         * Useful when the same reference data (shared catalog entries, configuration snapshots, interned value objects)
+         * is validated over and over again.
+         * <p>
+         * Only records whose components can only hold immutable values are remembered: strings, numbers, enums,
+         * final JDK types like {@code UUID} or {@code LocalDate}, optionals of those and other such records.
+         * They are compared by identity and only weakly referenced, so the cache never keeps them alive.
+         * Defaults to 0, no cache.
+         */
+        public Builder validatedCacheSize(int v) {
+            if (v < 0 || v > ValidatedCache.MAX_SIZE) {
+                throw new IllegalArgumentException("validatedCacheSize should be between 0 and " + ValidatedCache.MAX_SIZE + ", but was " + v);
+            }
+            this.validatedCacheSize = v;
+            return this;
+        }
+
+        /**
+         * How visited objects are tracked, defaults to {@link TraversalMode#CYCLIC}.
+         * Validating trees, like freshly deserialized payloads, in {@link TraversalMode#TREE} mode skips the bookkeeping.
+         *
+         * @see #withTraversalMode(TraversalMode)
+         */
+        public Builder traversalMode(TraversalMode v) {
+            this.traversalMode = Objects.requireNonNull(v, "traversalMode");
+            return this;
+        }
+
+        /**
+         * Whether the {@link NullsFoundException} thrown by {@link ConfiguredNullValidator#assertNoNulls(Object)} has a stack trace, defaults to true.
+         * Filling in the stack trace is most of the cost of creating an exception, so leave it out when rejecting
+         * invalid objects at a high rate, and the paths say enough.
+         */
+        public Builder captureStackTrace(boolean v) {
+            this.captureStackTrace = v;
+            return this;
+        }
+
+        /**
+         * Only validates the parts of the graph matching the given path patterns, relative to the root,
+         * e.g. {@code orders[*].lines[*].sku} or {@code customer.**}. A pattern is made of property names,
+         * {@code *} for any property, {@code [*]} for any element of a collection, array or map (keys and values alike),
+         * and {@code **} for any number of properties and elements. At most {@value Scope#MAX_STEPS} steps are supported,
+         * counting one extra for every pattern.
+         * <p>
+         * A null is reported when its path matches a pattern, or when it is missing on the way to a match,
+         * like a null {@code orders}, but not when only a {@code **} leads to it.
+         * Other parts of the graph are not walked at all.
+         *
+         * @throws IllegalArgumentException if a pattern is invalid
+         */
+        public Builder scope(String... patterns) {
+            this.scope = Scope.compile(List.of(patterns));
+            return this;
+        }
+
+        /**
+         * What to do with lazily loaded objects that aren't initialized, like ORM proxies and lazy collections,
+         * defaults to {@link UninitializedPolicy#SKIP}. They are never walked, so validating doesn't load them.
+         * Lazy types are recognized by the {@link net.vanfleteren.nonulls.validator.spi.LazyBoundary} implementations on the classpath,
+         * e.g. the one in the validator-hibernate module.
+         */
+        public Builder uninitialized(UninitializedPolicy v) {
+            this.uninitialized = Objects.requireNonNull(v, "uninitialized");
+            return this;
+        }
+
+        /**
+         * Whether the properties of records and pojos are read through a small class defined at runtime per type, defaults to true.
+         * Both ways report the same nulls, switch it off where defining classes at runtime isn't allowed.
+         * The system property {@value net.vanfleteren.nonulls.validator.internal.HiddenClassReaders#ENABLED_PROPERTY}{@code =false} switches it off for every validator.
+         */
+        public Builder hiddenClasses(boolean v) {
+            this.hiddenClasses = v;
+            return this;
+        }
+
+        public ConfiguredNullValidator build() {
+            return new ConfiguredNullValidator(this);
+        }
+    }
+
+    static final int DEFAULT_PARALLEL_THRESHOLD = 10_000;
+
+    private final boolean parallel;
+    private final int parallelThreshold;
+    private final @Nullable ForkJoinPool pool;
+    private final int maxReportedNulls;
+    private final int maxDepth;
+    private final long maxNodes;
+    private final @Nullable Duration timeout;
+    private final @Nullable ValidatedCache validatedCache;
+    private final TraversalMode traversalMode;
+    private final boolean captureStackTrace;
+    private final @Nullable Scope scope;
+    private final UninitializedPolicy uninitialized;
+    private final boolean hiddenClasses;
+    /** The limits, the same for every validation, only the deadline depends on when it starts. */
+    private final Limits limits;
+    private final ScratchPool<Scratch> scratches;
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    private ConfiguredNullValidator(Builder b) {
+        this.parallel = b.parallel;
+        this.parallelThreshold = b.parallelThreshold;
+        this.pool = b.pool;
+        this.maxReportedNulls = b.maxReportedNulls;
+        this.maxDepth = b.maxDepth;
+        this.maxNodes = b.maxNodes;
+        this.timeout = b.timeout;
+        this.validatedCache = b.validatedCacheSize > 0 ? new ValidatedCache(b.validatedCacheSize) : null;
+        this.traversalMode = b.traversalMode;
+        this.captureStackTrace = b.captureStackTrace;
+        this.scope = b.scope;
+        this.uninitialized = b.uninitialized;
+        this.hiddenClasses = b.hiddenClasses;
+        this.limits = limits(maxReportedNulls, maxDepth, maxNodes, traversalMode);
+        ForkJoinPool forkJoinPool = parallel ? (pool != null ? pool : ForkJoinPool.commonPool()) : null;
+        int threshold = parallel ? parallelThreshold : Integer.MAX_VALUE;
+        ValidatedCache cache = validatedCache;
+        boolean hidden = hiddenClasses;
+        this.scratches = new ScratchPool<>(() -> new Scratch(new Traversal(cache, forkJoinPool, threshold, hidden)));
+    }
+
+    private ConfiguredNullValidator(ConfiguredNullValidator other, TraversalMode traversalMode) {
+        this.parallel = other.parallel;
+        this.parallelThreshold = other.parallelThreshold;
+        this.pool = other.pool;
+        this.maxReportedNulls = other.maxReportedNulls;
+        this.maxDepth = other.maxDepth;
+        this.maxNodes = other.maxNodes;
+        this.timeout = other.timeout;
+        this.validatedCache = other.validatedCache;
+        this.traversalMode = traversalMode;
+        this.captureStackTrace = other.captureStackTrace;
+        this.scope = other.scope;
+        this.uninitialized = other.uninitialized;
+        this.hiddenClasses = other.hiddenClasses;
+        this.limits = limits(maxReportedNulls, maxDepth, maxNodes, traversalMode);
+        this.scratches = other.scratches;
+    }
+
+    /**
+     * A validator with the same configuration, and cache, as this one, that tracks visited objects in the given mode,
+     * e.g. {@code validator.withTraversalMode(TraversalMode.TREE).validate(payload)} for a single payload known to be a tree.
+     */
+    public ConfiguredNullValidator withTraversalMode(TraversalMode traversalMode) {
+        Objects.requireNonNull(traversalMode, "traversalMode");
+        if (traversalMode == this.traversalMode) {
+            return this;
+        }
+        return new ConfiguredNullValidator(this, traversalMode);
+    }
+
+    /**
+     * Validates that the given object and its entire object graph contains no null values.
+     * Validating a graph without nulls doesn't allocate, apart from the iterators of collections that aren't lists and of maps.
+     *
+     * @param obj the object to validate
+     * @throws NullsFoundException if any null value is found in the object graph,
+     *                             or if the validation reached one of its limits, so the graph might contain nulls
+     */
+    @Contract(value = "null -> fail; !null -> param1", pure = true)
+    public <T> T assertNoNulls(@Nullable T obj) throws NullsFoundException {
+        Scratch scratch = scratches.acquire();
+        try {
+            NullReport.Truncation truncation = collect(obj, scratch, Integer.MAX_VALUE);
+            if (!scratch.paths.isEmpty() || truncation != null) {
+                throw new NullsFoundException(new NullReport(scratch.paths, truncation), captureStackTrace);
+            }
+        } finally {
+            release(scratch);
+        }
+        assert obj != null;
+        return obj;
+    }
+
+    /**
+     * Validates that the given object and its entire object graph contains no null values.
+     * When the validation reaches one of its limits, only the nulls found until then are returned.
+     *
+     * @param obj the object to validate
+     * @return a list of paths where nulls were found, empty if no nulls were found
+     * @see #validate(Object)
+     */
+    @Contract(value = "_ -> new", pure = true)
+    public List<String> findNullPaths(@Nullable Object obj) {
+        Scratch scratch = scratches.acquire();
+        try {
+            collect(obj, scratch, Integer.MAX_VALUE);
+            List<String> nullPaths = new ArrayList<>(scratch.paths.size());
+            for (NullPath path : scratch.paths) {
+                nullPaths.add(path.toString());
+            }
+            return nullPaths;
+        } finally {
+            release(scratch);
+        }
+    }
+
+    /**
+     * Validates the given object and its entire object graph, within the limits of this validator.
+     *
+     * @param obj the object to validate
+     * @return the paths where nulls were found and, if the validation stopped early, which limit it reached
+     */
+    @Contract(value = "_ -> new", pure = true)
+    public NullReport validate(@Nullable Object obj) {
+        Scratch scratch = scratches.acquire();
+        try {
+            NullReport.Truncation truncation = collect(obj, scratch, Integer.MAX_VALUE);
+            return new NullReport(scratch.paths, truncation);
+        } finally {
+            release(scratch);
+        }
+    }
+
+    /**
+     * Validates the given object and its entire object graph, within the limits of this validator,
+     * passing the path of every null found to the given sink, e.g. {@link NullSink#counting()} to only count them.
+     * The validation stops early when the sink {@link NullSink#isDone() is done}.
+     *
+     * @param obj the object to validate
+     * @param sink receives the paths where nulls were found
+     * @return the limit that stopped the validation early, or null if it wasn't stopped by a limit
+     */
+    public NullReport.@Nullable Truncation validate(@Nullable Object obj, NullSink sink) {
+        Objects.requireNonNull(sink, "sink");
+        Scratch scratch = scratches.acquire();
+        try {
+            return scratch.traversal.run(obj, NullPath.root(), sink, traversalMode, limits, deadline(), scope, uninitialized);
+        } finally {
+            release(scratch);
+        }
+    }
+
+    /**
+     * Validates the given object and its entire object graph, within the limits of this validator,
+     * aggregating the nulls found by their wildcard path, e.g. {@code root.items[*].name x 48213}.
+     * Unlike {@link #validate(Object)}, the path of every single null isn't kept, only a count and a few samples.
+     *
+     * @param obj the object to validate
+     * @return the nulls found, aggregated by wildcard path
+     */
+    @Contract(value = "_ -> new", pure = true)
+    public NullSummary summarize(@Nullable Object obj) {
+        NullSummary.Collector collector = new NullSummary.Collector();
+        return collector.summary(validate(obj, collector));
+    }
+
+    /**
+     * Finds the first null value in the object graph, in the same order as {@link #findNullPaths(Object)} would report them.
+     * Traversal stops as soon as a null is found, except that a custom {@link net.vanfleteren.nonulls.validator.spi.TypeValidator}
+     * passes all the children of an object before they are walked, see {@link net.vanfleteren.nonulls.validator.spi.RecursiveValidator}.
+     *
+     * @param obj the object to validate
+     * @return the path of the first null found, empty if no nulls were found
+     */
+    @Contract(pure = true)
+    public Optional<String> findFirstNullPath(@Nullable Object obj) {
+        Scratch scratch = scratches.acquire();
+        try {
+            collect(obj, scratch, 1);
+            return scratch.paths.isEmpty() ? Optional.empty() : Optional.of(scratch.paths.getFirst().toString());
+        } finally {
+            release(scratch);
+        }
+    }
+
+    /**
+     * Checks if the object and its entire object graph contain no null values.
+     * Traversal stops as soon as a null is found, with the same exception for custom validators as {@link #findFirstNullPath(Object)}. Like {@link #assertNoNulls(Object)}, checking a graph without nulls doesn't allocate.
+     *
+     * @param obj the object to check
+     * @return true if no nulls are found, false otherwise, also when the validation reached one of its limits
+     */
+    @Contract(value = "null -> false", pure = true)
+    public boolean hasNoNulls(@Nullable Object obj) {
+        Scratch scratch = scratches.acquire();
+        try {
+            return collect(obj, scratch, 1) == null && scratch.paths.isEmpty();
+        } finally {
+            release(scratch);
+        }
+    }
+
+    /**
+     * Validates the object, collecting up to the given number of null paths in the scratch.
+     */
+    private NullReport.@Nullable Truncation collect(@Nullable Object obj, Scratch scratch, int maxPaths) {
+        scratch.maxPaths = maxPaths;
+        return scratch.traversal.run(obj, NullPath.root(), scratch, traversalMode, limits, deadline(), scope, uninitialized);
+    }
+
+    private void release(Scratch scratch) {
+        scratch.clear();
+        scratches.release(scratch);
+    }
+
+    /**
+     * The deadline of a validation starting now, a primitive so validating doesn't allocate, also with a timeout.
+     */
+    private long deadline() {
+        return timeout == null ? Limits.NO_DEADLINE : System.nanoTime() + timeout.toNanos();
+    }
+
+    private static Limits limits(int maxReportedNulls, int maxDepth, long maxNodes, TraversalMode traversalMode) {
+        if (maxDepth == Integer.MAX_VALUE && traversalMode != TraversalMode.CYCLIC) {
+            // without tracking, a cycle would be walked forever
+            maxDepth = TraversalMode.DEFAULT_MAX_DEPTH;
+        }
+        if (maxReportedNulls == Integer.MAX_VALUE && maxDepth == Integer.MAX_VALUE && maxNodes == Long.MAX_VALUE) {
+            return Limits.NONE;
+        }
+        return new Limits(maxReportedNulls, maxDepth, maxNodes);
+    }
+
+    /**
+     * The state reused between validations: a traversal, and the null paths it found.
+     */
+    private static final class Scratch implements NullSink {
+        /** Buffers larger than this are released after a validation instead of being kept for the next one. */
+        private static final int MAX_RETAINED_PATHS = 1 << 10;
+
+        private final Traversal traversal;
+        private final ArrayList<NullPath> paths = new ArrayList<>();
+        private int maxPaths;
+
+        Scratch(Traversal traversal) {
+            this.traversal = traversal;
+        }
+
+        @Override
+        public void accept(NullPath path) {
+            paths.add(path);
+        }
+
+        @Override
+        public boolean isDone() {
+            return paths.size() >= maxPaths;
+        }
+
+        void clear() {
+            boolean large = paths.size() > MAX_RETAINED_PATHS;
+            paths.clear();
+            if (large) {
+                paths.trimToSize();
+            }
+        }
+    }
+}
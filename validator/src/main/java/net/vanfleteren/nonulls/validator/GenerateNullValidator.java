@@ -0,0 +1,18 @@
+package net.vanfleteren.nonulls.validator;
+
+import java.lang.annotation.*;
+
+/**
+ * Marks a record or pojo for which the {@code validator-processor} annotation processor should generate
+ * a reflection-free validator at compile time.
+ * <p>
+ * For a type {@code com.example.Order} the generated class is {@code com.example.OrderNullValidator}
+ * (nested types are joined with an underscore, e.g. {@code Outer_InnerNullValidator}).
+ * {@link NullValidator} picks it up automatically and uses it instead of reflection to read the properties of the type.
+ * In a named module, the package of the type has to be exported to the validator module.
+ */
+@Documented
+@Retention(RetentionPolicy.CLASS)
+@Target(ElementType.TYPE)
+public @interface GenerateNullValidator {
+}
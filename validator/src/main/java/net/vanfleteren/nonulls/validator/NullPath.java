@@ -0,0 +1,290 @@
+package net.vanfleteren.nonulls.validator;
+
+import org.jspecify.annotations.Nullable;
+
+import java.io.InvalidObjectException;
+import java.io.ObjectInputStream;
+import java.io.Serial;
+import java.io.Serializable;
+import java.util.Objects;
+
+/**
+ * A path from the root of an object graph to one of its nodes, e.g. {@code root.orders[17].lines[3].sku}.
+ * <p>
+ * A path only holds its last segment and a pointer to its parent, so child paths are cheap to create and share
+ * their prefix with their siblings. The string form is only rendered when asked for with {@link #toString()},
+ * which is typically only needed when a null is actually found.
+ * <p>
+ * Keys are kept as they are until a null is reported at the path, then they are rendered to strings once with {@link #renderKeys()}.
+ * So a reported path doesn't hold on to the keys of the graph it was found in, and renders the same however they change later.
+ * <p>
+ * Paths are equal when they have the same segments, property names and indexes, and keys that render the same.
+ * <p>
+ * Paths are serializable, with their keys rendered to strings, so reports and exceptions holding them are too.
+ */
+public final class NullPath implements Serializable {
+
+    @Serial
+    private static final long serialVersionUID = 1L;
+
+    private static final NullPath ROOT = new NullPath(null, Segment.ROOT, "root", -1, null);
+
+    private enum Segment {
+        ROOT, PROPERTY, INDEX, KEY, MAP_KEY,
+        /** Any index or key, rendered as {@code [*]}. */
+        ANY,
+        /** Any key itself, rendered as {@code .key[*]}. */
+        ANY_MAP_KEY
+    }
+
+    private final @Nullable NullPath parent;
+    private final Segment segment;
+    private final @Nullable String name;
+    private final int index;
+    /** The key, or its rendering once the path is reported. Rendering it again gives the same string, so threads racing to render it agree. */
+    @SuppressWarnings("serial") // the serialized form only holds its rendering
+    private @Nullable Object key;
+
+    private NullPath(@Nullable NullPath parent, Segment segment, @Nullable String name, int index, @Nullable Object key) {
+        this.parent = parent;
+        this.segment = segment;
+        this.name = name;
+        this.index = index;
+        this.key = key;
+    }
+
+    /**
+     * The path of the root object, rendered as {@code root}.
+     */
+    public static NullPath root() {
+        return ROOT;
+    }
+
+    /**
+     * The path of the node this is a child of, or null for the root.
+     */
+    public @Nullable NullPath parent() {
+        return parent;
+    }
+
+    /**
+     * The path of a property (field or record component) of this node, rendered as {@code .name}.
+     */
+    public NullPath property(String name) {
+        return new NullPath(this, Segment.PROPERTY, Objects.requireNonNull(name, "name"), -1, null);
+    }
+
+    /**
+     * The path of an element at the given index of this node, rendered as {@code [index]}.
+     */
+    public NullPath index(int index) {
+        return new NullPath(this, Segment.INDEX, null, index, null);
+    }
+
+    /**
+     * The path of the value stored under the given key of this node, rendered as {@code [key]}.
+     * The key is only converted to a string when the path is rendered or reported.
+     */
+    public NullPath key(@Nullable Object key) {
+        return new NullPath(this, Segment.KEY, null, -1, key);
+    }
+
+    /**
+     * The path of the given key itself of this node, rendered as {@code .key[key]}.
+     * The key is only converted to a string when the path is rendered or reported.
+     */
+    public NullPath mapKey(@Nullable Object key) {
+        return new NullPath(this, Segment.MAP_KEY, null, -1, key);
+    }
+
+    /**
+     * Renders the keys of this path and its parents to strings, and only keeps those.
+     * Validations call this for every path they report, so the paths they hand out don't refer to the validated graph.
+     *
+     * @return this path
+     */
+    public NullPath renderKeys() {
+        for (NullPath current = this; current != null; current = current.parent) {
+            if (current.hasKey() && !(current.key instanceof String)) {
+                current.key = render(current.key);
+            }
+        }
+        return this;
+    }
+
+    /**
+     * The key as it appears in the path. A key whose {@code toString()} fails is rendered like {@link Object#toString()} renders it.
+     */
+    private static String render(@Nullable Object key) {
+        try {
+            return String.valueOf(key);
+        } catch (RuntimeException e) {
+            return Objects.requireNonNull(key).getClass().getName() + "@" + Integer.toHexString(System.identityHashCode(key));
+        }
+    }
+
+    /**
+     * Renders this path, e.g. {@code root.orders[17].lines[3].sku}.
+     */
+    @Override
+    public String toString() {
+        NullPath[] segments = segments();
+        StringBuilder rendered = new StringBuilder(segments.length * 8);
+        for (NullPath path : segments) {
+            path.appendSegment(rendered);
+        }
+        return rendered.toString();
+    }
+
+    /**
+     * This path with every index and key replaced by a wildcard, e.g. {@code root.orders[*].lines[*].sku}.
+     * The part of the path before the first index or key is shared with this path.
+     */
+    public NullPath wildcard() {
+        NullPath[] segments = segments();
+        NullPath wildcard = null;
+        for (NullPath path : segments) {
+            Segment any = switch (path.segment) {
+                case INDEX, KEY, ANY -> Segment.ANY;
+                case MAP_KEY, ANY_MAP_KEY -> Segment.ANY_MAP_KEY;
+                case ROOT, PROPERTY -> null;
+            };
+            if (any != null) {
+                wildcard = new NullPath(wildcard, any, null, -1, null);
+            } else if (wildcard == path.parent) {
+                // nothing was replaced yet
+                wildcard = path;
+            } else {
+                wildcard = new NullPath(wildcard, path.segment, path.name, -1, null);
+            }
+        }
+        assert wildcard != null;
+        return wildcard;
+    }
+
+    /**
+     * The segments of this path, from the root to this path itself.
+     */
+    private NullPath[] segments() {
+        int depth = 0;
+        for (NullPath current = this; current != null; current = current.parent) {
+            depth++;
+        }
+        NullPath[] segments = new NullPath[depth];
+        NullPath current = this;
+        for (int i = depth - 1; i >= 0; i--) {
+            assert current != null;
+            segments[i] = current;
+            current = current.parent;
+        }
+        return segments;
+    }
+
+    @Override
+    public boolean equals(@Nullable Object o) {
+        if (!(o instanceof NullPath other)) {
+            return false;
+        }
+        @Nullable NullPath left = this;
+        @Nullable NullPath right = other;
+        while (left != right) {
+            if (left == null || right == null || !left.sameSegment(right)) {
+                return false;
+            }
+            left = left.parent;
+            right = right.parent;
+        }
+        return true;
+    }
+
+    @Override
+    public int hashCode() {
+        int hash = 1;
+        for (NullPath current = this; current != null; current = current.parent) {
+            hash = 31 * hash + current.segment.ordinal();
+            hash = 31 * hash + Objects.hashCode(current.name);
+            hash = 31 * hash + current.index;
+            hash = 31 * hash + (current.hasKey() ? render(current.key).hashCode() : 0);
+        }
+        return hash;
+    }
+
+    private boolean hasKey() {
+        return segment == Segment.KEY || segment == Segment.MAP_KEY;
+    }
+
+    private boolean sameSegment(NullPath other) {
+        return segment == other.segment
+                && index == other.index
+                && Objects.equals(name, other.name)
+                && (key == other.key || render(key).equals(render(other.key)));
+    }
+
+    private void appendSegment(StringBuilder target) {
+        switch (segment) {
+            case ROOT -> target.append(name);
+            case PROPERTY -> target.append('.').append(name);
+            case INDEX -> target.append('[').append(index).append(']');
+            case KEY -> target.append('[').append(render(key)).append(']');
+            case MAP_KEY -> target.append(".key[").append(render(key)).append(']');
+            case ANY -> target.append("[*]");
+            case ANY_MAP_KEY -> target.append(".key[*]");
+        }
+    }
+
+    /**
+     * Serializes the segments one after the other, deep paths would overflow the stack when serialized as a chain of parents.
+     */
+    @Serial
+    private Object writeReplace() {
+        return new SerializedForm(segments());
+    }
+
+    @Serial
+    private void readObject(ObjectInputStream in) throws InvalidObjectException {
+        throw new InvalidObjectException("NullPaths are serialized through their SerializedForm");
+    }
+
+    /**
+     * The segments of a path below the root, with their names, indexes and rendered keys.
+     */
+    private static final class SerializedForm implements Serializable {
+        @Serial
+        private static final long serialVersionUID = 1L;
+
+        private final Segment[] segments;
+        private final @Nullable String[] names;
+        private final int[] indexes;
+
+        SerializedForm(NullPath[] path) {
+            int length = path.length - 1;
+            segments = new Segment[length];
+            names = new String[length];
+            indexes = new int[length];
+            for (int i = 0; i < length; i++) {
+                NullPath segment = path[i + 1];
+                segments[i] = segment.segment;
+                names[i] = segment.hasKey() ? render(segment.key) : segment.name;
+                indexes[i] = segment.index;
+            }
+        }
+
+        @Serial
+        private Object readResolve() throws InvalidObjectException {
+            if (segments.length != names.length || segments.length != indexes.length) {
+                throw new InvalidObjectException("Corrupt NullPath");
+            }
+            NullPath path = ROOT;
+            for (int i = 0; i < segments.length; i++) {
+                Segment segment = segments[i];
+                if (segment == Segment.ROOT || segment == Segment.PROPERTY && names[i] == null) {
+                    throw new InvalidObjectException("Corrupt NullPath");
+                }
+                path = segment == Segment.KEY || segment == Segment.MAP_KEY
+                        ? new NullPath(path, segment, null, -1, names[i])
+                        : new NullPath(path, segment, names[i], indexes[i], null);
+            }
+            return path;
+        }
+    }
+}
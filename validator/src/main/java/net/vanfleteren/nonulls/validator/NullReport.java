@@ -0,0 +1,135 @@
+package net.vanfleteren.nonulls.validator;
+
+import org.jspecify.annotations.Nullable;
+
+import java.io.InvalidObjectException;
+import java.io.ObjectInputStream;
+import java.io.Serial;
+import java.io.Serializable;
+import java.util.AbstractList;
+import java.util.List;
+import java.util.Objects;
+import java.util.RandomAccess;
+
+/**
+ * The outcome of validating an object graph: the paths where nulls were found and,
+ * when the validation hit one of the limits configured on the {@link ConfiguredNullValidator.Builder builder},
+ * why it stopped before walking the entire graph.
+ * <p>
+ * The paths are kept as {@link NullPath}s, which share their common prefixes, and are only rendered to strings when asked for.
+ * So even a report of a batch with many thousands of nulls stays compact.
+ * <p>
+ * Reports are serializable, so the {@link NullsFoundException} holding one is too.
+ */
+public final class NullReport implements Serializable {
+
+    @Serial
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * The limit that stopped a validation early.
+     */
+    public enum Truncation {
+        /** More nulls were found than {@link ConfiguredNullValidator.Builder#maxReportedNulls(int)} allows. */
+        MAX_REPORTED_NULLS,
+        /** Nodes deeper than {@link ConfiguredNullValidator.Builder#maxDepth(int)} were not inspected. */
+        MAX_DEPTH,
+        /** More nodes were found than {@link ConfiguredNullValidator.Builder#maxNodes(long)} allows. */
+        MAX_NODES,
+        /** The validation took longer than {@link ConfiguredNullValidator.Builder#timeout(java.time.Duration)}. */
+        DEADLINE
+    }
+
+    // serialized through the SerializedForm
+    @SuppressWarnings("serial")
+    private final List<NullPath> paths;
+    @SuppressWarnings("serial")
+    private final List<String> nullPaths;
+    private final @Nullable Truncation truncation;
+
+    NullReport(List<NullPath> paths, @Nullable Truncation truncation) {
+        this.paths = List.copyOf(Objects.requireNonNull(paths, "paths"));
+        this.nullPaths = new RenderedPaths(this.paths);
+        this.truncation = truncation;
+    }
+
+    /**
+     * The paths where nulls were found, in traversal order.
+     * When the validation was truncated, the graph may contain more nulls.
+     */
+    public List<NullPath> paths() {
+        return paths;
+    }
+
+    /**
+     * The paths where nulls were found rendered as strings, e.g. {@code root.orders[17].lines[3].sku}.
+     * This is a view on {@link #paths()}, a path is rendered every time it is read.
+     */
+    public List<String> nullPaths() {
+        return nullPaths;
+    }
+
+    public boolean hasNulls() {
+        return !paths.isEmpty();
+    }
+
+    /**
+     * Whether the validation stopped before the entire graph was inspected.
+     */
+    public boolean isTruncated() {
+        return truncation != null;
+    }
+
+    /**
+     * The limit that stopped the validation, or null if the entire graph was inspected.
+     */
+    public @Nullable Truncation truncation() {
+        return truncation;
+    }
+
+    @Serial
+    private Object writeReplace() {
+        return new SerializedForm(paths.toArray(NullPath[]::new), truncation);
+    }
+
+    @Serial
+    private void readObject(ObjectInputStream in) throws InvalidObjectException {
+        throw new InvalidObjectException("NullReports are serialized through their SerializedForm");
+    }
+
+    /**
+     * The paths and truncation of a report, the rendered view on the paths is recreated when it is deserialized.
+     */
+    private record SerializedForm(NullPath[] paths, @Nullable Truncation truncation) implements Serializable {
+        @Serial
+        private Object readResolve() {
+            return new NullReport(List.of(paths), truncation);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "NullReport" + paths + (truncation != null ? " truncated by " + truncation : "");
+    }
+
+    /**
+     * Renders paths on demand.
+     */
+    static final class RenderedPaths extends AbstractList<String> implements RandomAccess {
+        private final List<NullPath> paths;
+
+        RenderedPaths(List<NullPath> paths) {
+            this.paths = paths;
+        }
+
+        @Override
+        public String get(int index) {
+            return paths.get(index).toString();
+        }
+
+        @Override
+        public int size() {
+            return paths.size();
+        }
+    }
+}
@@ -0,0 +1,143 @@
+package net.vanfleteren.nonulls.validator;
+
+import net.vanfleteren.nonulls.validator.internal.Repair;
+import org.jspecify.annotations.Nullable;
+
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Repairs the nulls in an object graph that have an obvious replacement, and reports the ones that don't,
+ * like the Jackson {@code NoNullsModule} does while deserializing, for objects that don't come from json:
+ * <ul>
+ *     <li>null collections, maps and arrays become empty ones, null optionals become empty optionals</li>
+ *     <li>null elements are removed from collections and arrays</li>
+ *     <li>entries with a null value are removed from maps</li>
+ * </ul>
+ * The graph is repaired in a single walk. Mutable collections, maps, arrays and pojos are repaired in place,
+ * records are rebuilt with their canonical constructor, and unmodifiable collections and maps are replaced by repaired copies,
+ * as long as the record or pojo holding them can take the copy. A record root is returned as a new record,
+ * see {@link Sanitized#value()}.
+ * <p>
+ * Created with {@link #builder()}, or use {@link NullValidator#sanitize(Object)}. Instances are immutable and can be shared between threads.
+ */
+public final class NullSanitizer {
+
+    public static final class Builder {
+        boolean treatNullCollectionsAsEmpty = true;
+        boolean treatNullOptionalsAsEmpty = true;
+        boolean filterNullsInCollections = true;
+        boolean filterNullValuesInMaps = true;
+        int maxDepth = TraversalMode.DEFAULT_MAX_DEPTH;
+
+        /**
+         * Whether null collections, maps and arrays are replaced by empty ones, defaults to true.
+         * Only properties that can hold a {@code ArrayList}, {@code LinkedHashSet}, {@code TreeSet}, {@code LinkedHashMap} or {@code TreeMap}
+         * are repaired, or an array of their component type.
+         */
+        public Builder treatNullCollectionsAsEmpty(boolean v) {
+            this.treatNullCollectionsAsEmpty = v;
+            return this;
+        }
+
+        /**
+         * Whether null {@code Optional} properties are replaced by {@code Optional.empty()}, defaults to true.
+         */
+        public Builder treatNullOptionalsAsEmpty(boolean v) {
+            this.treatNullOptionalsAsEmpty = v;
+            return this;
+        }
+
+        /**
+         * Whether null elements are removed from collections and arrays, defaults to true.
+         * An array is replaced by a shorter one.
+         */
+        public Builder filterNullsInCollections(boolean v) {
+            this.filterNullsInCollections = v;
+            return this;
+        }
+
+        /**
+         * Whether entries with a null value are removed from maps, defaults to true.
+         * Null keys are never repaired.
+         */
+        public Builder filterNullValuesInMaps(boolean v) {
+            this.filterNullValuesInMaps = v;
+            return this;
+        }
+
+        /**
+         * The maximum nesting depth that is repaired, defaults to {@link TraversalMode#DEFAULT_MAX_DEPTH}.
+         * A graph that is deeper isn't repaired entirely, its report is truncated.
+         */
+        public Builder maxDepth(int v) {
+            if (v < 0) {
+                throw new IllegalArgumentException("maxDepth should be at least 0, but was " + v);
+            }
+            this.maxDepth = v;
+            return this;
+        }
+
+        public NullSanitizer build() {
+            return new NullSanitizer(this);
+        }
+    }
+
+    /**
+     * The outcome of sanitizing an object graph.
+     *
+     * @param value the repaired graph: the object that was sanitized, or a rebuilt copy if it is a record
+     * @param repaired the paths of the nulls that were repaired, in traversal order
+     * @param unrepaired the nulls that are left, because there is no obvious replacement for them or they couldn't be replaced
+     */
+    public record Sanitized<T>(@Nullable T value, List<NullPath> repaired, NullReport unrepaired) {
+
+        /**
+         * Whether the repaired graph contains no nulls.
+         */
+        public boolean isClean() {
+            return !unrepaired.hasNulls() && !unrepaired.isTruncated();
+        }
+
+        /**
+         * Returns the repaired graph if it contains no nulls.
+         *
+         * @throws NullsFoundException with the nulls that are left
+         */
+        public T orElseThrow() throws NullsFoundException {
+            if (!isClean()) {
+                throw new NullsFoundException(unrepaired);
+            }
+            return Objects.requireNonNull(value);
+        }
+    }
+
+    private final boolean treatNullCollectionsAsEmpty;
+    private final boolean treatNullOptionalsAsEmpty;
+    private final boolean filterNullsInCollections;
+    private final boolean filterNullValuesInMaps;
+    private final int maxDepth;
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    private NullSanitizer(Builder b) {
+        this.treatNullCollectionsAsEmpty = b.treatNullCollectionsAsEmpty;
+        this.treatNullOptionalsAsEmpty = b.treatNullOptionalsAsEmpty;
+        this.filterNullsInCollections = b.filterNullsInCollections;
+        this.filterNullValuesInMaps = b.filterNullValuesInMaps;
+        this.maxDepth = b.maxDepth;
+    }
+
+    /**
+     * Repairs the nulls in the given object graph that can be repaired, and reports the ones that are left.
+     * Keep using the returned value rather than the given object, a record can only be repaired by rebuilding it.
+     */
+    @SuppressWarnings("unchecked")
+    public <T> Sanitized<T> sanitize(@Nullable T obj) {
+        Repair repair = new Repair(treatNullCollectionsAsEmpty, treatNullOptionalsAsEmpty, filterNullsInCollections, filterNullValuesInMaps, maxDepth);
+        T value = (T) repair.run(obj);
+        return new Sanitized<>(value, List.copyOf(repair.fixed()), new NullReport(repair.unfixed(), repair.truncation()));
+    }
+}
@@ -0,0 +1,131 @@
+package net.vanfleteren.nonulls.validator;
+
+import net.vanfleteren.nonulls.validator.spi.NullSink;
+import org.jspecify.annotations.Nullable;
+
+import java.util.*;
+
+/**
+ * The nulls found in an object graph, aggregated by their {@link NullPath#wildcard() wildcard path},
+ * e.g. {@code root.items[*].name x 48213 (root.items[3].name, root.items[8].name, root.items[9].name)}.
+ * <p>
+ * Only the wildcard path, a count and the first few paths of every group are kept,
+ * so the summary stays small however many nulls a bulk payload contains.
+ */
+public final class NullSummary {
+
+    /**
+     * The number of sample paths kept for every group.
+     */
+    public static final int MAX_SAMPLES = 3;
+
+    /**
+     * The nulls found at paths matching the same wildcard path.
+     *
+     * @param path the wildcard path
+     * @param count the number of nulls found
+     * @param samples the first (up to {@value #MAX_SAMPLES}) paths where nulls were found
+     */
+    public record Group(NullPath path, long count, List<NullPath> samples) {
+
+        /**
+         * Renders the group like {@code root.items[*].name x 48213 (root.items[3].name, root.items[8].name, root.items[9].name)},
+         * or just the path when there is a single null without wildcards.
+         */
+        @Override
+        public String toString() {
+            if (count == 1 && samples.size() == 1 && samples.getFirst().equals(path)) {
+                return path.toString();
+            }
+            StringJoiner rendered = new StringJoiner(", ", path + " x " + count + " (", count > samples.size() ? ", ...)" : ")");
+            for (NullPath sample : samples) {
+                rendered.add(sample.toString());
+            }
+            return rendered.toString();
+        }
+    }
+
+    private final List<Group> groups;
+    private final NullReport.@Nullable Truncation truncation;
+
+    NullSummary(List<Group> groups, NullReport.@Nullable Truncation truncation) {
+        this.groups = List.copyOf(groups);
+        this.truncation = truncation;
+    }
+
+    /**
+     * The groups of nulls, in the order the first null of every group was found.
+     */
+    public List<Group> groups() {
+        return groups;
+    }
+
+    /**
+     * The total number of nulls found.
+     */
+    public long count() {
+        long count = 0;
+        for (Group group : groups) {
+            count += group.count();
+        }
+        return count;
+    }
+
+    public boolean hasNulls() {
+        return !groups.isEmpty();
+    }
+
+    /**
+     * Whether the validation stopped before the entire graph was inspected, see {@link NullReport#truncation()}.
+     */
+    public boolean isTruncated() {
+        return truncation != null;
+    }
+
+    public NullReport.@Nullable Truncation truncation() {
+        return truncation;
+    }
+
+    @Override
+    public String toString() {
+        StringJoiner rendered = new StringJoiner(", ", "NullSummary[", "]" + (truncation != null ? " truncated by " + truncation : ""));
+        for (Group group : groups) {
+            rendered.add(group.toString());
+        }
+        return rendered.toString();
+    }
+
+    /**
+     * Collects the null paths reported by a traversal straight into their groups, without keeping every path.
+     */
+    static final class Collector implements NullSink {
+        private final Map<NullPath, MutableGroup> groups = new LinkedHashMap<>();
+
+        @Override
+        public void accept(NullPath path) {
+            MutableGroup group = groups.computeIfAbsent(path.wildcard(), MutableGroup::new);
+            group.count++;
+            if (group.samples.size() < MAX_SAMPLES) {
+                group.samples.add(path);
+            }
+        }
+
+        NullSummary summary(NullReport.@Nullable Truncation truncation) {
+            List<Group> summary = new ArrayList<>(groups.size());
+            for (MutableGroup group : groups.values()) {
+                summary.add(new Group(group.path, group.count, List.copyOf(group.samples)));
+            }
+            return new NullSummary(summary, truncation);
+        }
+    }
+
+    private static final class MutableGroup {
+        private final NullPath path;
+        private long count;
+        private final List<NullPath> samples = new ArrayList<>(MAX_SAMPLES);
+
+        MutableGroup(NullPath path) {
+            this.path = path;
+        }
+    }
+}
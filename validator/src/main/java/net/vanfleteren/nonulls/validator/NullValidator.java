@@ -1,15 +1,11 @@
 package net.vanfleteren.nonulls.validator;
 
-import net.vanfleteren.nonulls.validator.spi.RecursiveValidator;
-import net.vanfleteren.nonulls.validator.spi.TypeValidator;
+import net.vanfleteren.nonulls.validator.spi.NullSink;
 import org.jspecify.annotations.Nullable;
 import org.jetbrains.annotations.Contract;
 
-import java.lang.reflect.Array;
-import java.lang.reflect.Field;
-import java.lang.reflect.Modifier;
-import java.lang.reflect.RecordComponent;
-import java.util.*;
+import java.util.List;
+import java.util.Optional;
 
 /**
  * Utility class for validating that an object graph contains no null values.
@@ -17,20 +13,54 @@ import java.util.*;
  */
 public class NullValidator {
 
-    private static final List<TypeValidator> CUSTOM_VALIDATORS;
-
-    static {
-        // Load custom validators via ServiceLoader
-        List<TypeValidator> validators = new ArrayList<>();
-        ServiceLoader<TypeValidator> loader = ServiceLoader.load(TypeValidator.class);
-        loader.forEach(validators::add);
-        CUSTOM_VALIDATORS = Collections.unmodifiableList(validators);
-    }
+    private static final ConfiguredNullValidator DEFAULT = ConfiguredNullValidator.builder().build();
+    private static final ConfiguredNullValidator PARALLEL = ConfiguredNullValidator.builder().parallel(true).build();
+    private static final ConfiguredNullValidator TREE = ConfiguredNullValidator.builder().traversalMode(TraversalMode.TREE).build();
+    private static final NullSanitizer SANITIZER = NullSanitizer.builder().build();
 
     private NullValidator() {
         // Utility class
     }
 
+    /**
+     * Returns a builder to configure a validator, e.g. for parallel validation or with limits for untrusted input.
+     */
+    public static ConfiguredNullValidator.Builder builder() {
+        return ConfiguredNullValidator.builder();
+    }
+
+    /**
+     * Returns a validator that splits large collections, object arrays and maps into chunks that are validated in parallel
+     * in the common {@link java.util.concurrent.ForkJoinPool}.
+     *
+     * @see ConfiguredNullValidator.Builder#parallel(boolean)
+     */
+    public static ConfiguredNullValidator parallel() {
+        return PARALLEL;
+    }
+
+    /**
+     * Returns a validator for object graphs that are trees, like freshly deserialized payloads,
+     * that doesn't keep track of the objects it visited.
+     *
+     * @see TraversalMode#TREE
+     */
+    public static ConfiguredNullValidator tree() {
+        return TREE;
+    }
+
+    /**
+     * Returns a validator that only validates the parts of the graph matching the given path patterns,
+     * e.g. {@code NullValidator.scoped("orders[*].lines[*].sku", "customer.**")}.
+     * Compiling the patterns isn't free, so keep the validator around rather than creating one for every validation.
+     *
+     * @throws IllegalArgumentException if a pattern is invalid
+     * @see ConfiguredNullValidator.Builder#scope(String...)
+     */
+    public static ConfiguredNullValidator scoped(String... patterns) {
+        return builder().scope(patterns).build();
+    }
+
     /**
      * Validates that the given object and its entire object graph contains no null values.
      *
@@ -39,12 +69,7 @@ public class NullValidator {
      */
     @Contract(value = "null -> fail; !null -> param1", pure = true)
     public static <T> T assertNoNulls(@Nullable T obj) throws NullsFoundException {
-        List<String> nullPaths = findNullPaths(obj);
-        if (!nullPaths.isEmpty()) {
-            throw new NullsFoundException(nullPaths);
-        }
-        assert obj != null;
-        return obj;
+        return DEFAULT.assertNoNulls(obj);
     }
 
     /**
@@ -55,174 +80,79 @@ public class NullValidator {
      */
     @Contract(value = "_ -> new", pure = true)
     public static List<String> findNullPaths(@Nullable Object obj) {
-        List<String> nullPaths = new ArrayList<>();
-        collectNullPaths(obj, "root", new HashSet<>(), nullPaths);
-
-        return nullPaths;
+        return DEFAULT.findNullPaths(obj);
     }
 
     /**
-     * Checks if the object and its entire object graph contain no null values.
+     * Validates the given object and its entire object graph.
+     * Use a {@link #builder()} to configure limits for the validation.
      *
-     * @param obj the object to check
-     * @return true if no nulls are found, false otherwise
+     * @param obj the object to validate
+     * @return the paths where nulls were found
      */
-    @Contract(value = "null -> false", pure = true)
-    public static boolean hasNoNulls(@Nullable Object obj) {
-        return findNullPaths(obj).isEmpty();
+    @Contract(value = "_ -> new", pure = true)
+    public static NullReport validate(@Nullable Object obj) {
+        return DEFAULT.validate(obj);
     }
 
     /**
-     * Internal helper to collect all null paths without throwing immediately.
+     * Validates the given object and its entire object graph, passing the path of every null found to the given sink,
+     * e.g. {@link NullSink#counting()} to only count them.
+     *
+     * @param obj the object to validate
+     * @param sink receives the paths where nulls were found
+     * @return the limit that stopped the validation early, or null if it wasn't stopped by a limit
+     * @see ConfiguredNullValidator#validate(Object, NullSink)
      */
-    private static void collectNullPaths(@Nullable Object obj, String path, Set<Integer> visited, List<String> nullPaths) {
-        if (obj == null) {
-            nullPaths.add(path);
-            return;
-        }
-
-        Class<?> clazz = obj.getClass();
-
-        // Handle primitives and their wrappers - no further inspection needed
-        if (clazz == String.class || isPrimitiveOrWrapper(clazz)) {
-            return;
-        }
-
-        // Avoid infinite recursion for circular references
-        int identityHash = System.identityHashCode(obj);
-        if (visited.contains(identityHash)) {
-            return;
-        }
-        visited.add(identityHash);
-
-
-
-        // Check custom validators first
-        for (TypeValidator validator : CUSTOM_VALIDATORS) {
-            if (validator.canHandle(clazz)) {
-                RecursiveValidator recursiveValidator = NullValidator::collectNullPaths;
-                validator.validate(obj, path, visited, nullPaths, recursiveValidator);
-                return;
-            }
-        }
-
-        switch (obj) {
-            case Optional<?> optional -> optional.ifPresent(value -> collectNullPaths(value, path, visited, nullPaths));
-
-            case Collection<?> collection -> recurseIntoCollection(path, visited, nullPaths, collection);
-
-            case Map<?, ?> map -> recurseIntoMap(path, visited, nullPaths, map);
-
-            case Record ignored -> recurseIntoRecord(obj, path, visited, nullPaths, clazz);
-
-            case Object o when clazz.isArray() ->  recurseIntoArray(obj, path, visited, nullPaths);
-
-            // no need to recurse into these, jdk classes are fine if they arte not null themselves, no need to look in their innards
-            case Object object when object.getClass().getName().startsWith("java") -> {}
-
-            // no need to recurse into these
-            case Enum<?> ignored -> {}
-
-            default -> recurseIntoPlainClass(obj, path, visited, nullPaths, clazz);
-        }
-    }
-
-    private static void recurseIntoPlainClass(Object obj, String path, Set<Integer> visited, List<String> nullPaths, Class<?> clazz) {
-        // Handle regular (non-record) classes by reflecting over fields
-        // Iterate through class hierarchy to include inherited fields
-        Class<?> current = clazz;
-        while (current != null && current != Object.class) {
-            Field[] fields = current.getDeclaredFields();
-            for (Field field : fields) {
-                // Skip static fields and synthetic fields (like this$0)
-                int modifiers = field.getModifiers();
-                if (Modifier.isStatic(modifiers) || field.isSynthetic()) {
-                    continue;
-                }
-                boolean wasAccessible = field.canAccess(obj);
-                try {
-                    if (!wasAccessible) {
-                        field.setAccessible(true);
-                    }
-                    Object value = field.get(obj);
-                    collectNullPaths(value, path + "." + field.getName(), visited, nullPaths);
-                } catch (Exception e) {
-                    throw new RuntimeException("Failed to access field: " + field.getName() + "of type " + field.getClass() + " at " + path + ". Is the field accessible?", e);
-                } finally {
-                    // restore the original accessibility state
-                    if (!wasAccessible) {
-                        try {
-                            field.setAccessible(false);
-                        } catch (Exception ignored) {
-                        }
-                    }
-                }
-            }
-            current = current.getSuperclass();
-        }
-    }
-
-    private static void recurseIntoArray(Object obj, String path, Set<Integer> visited, List<String> nullPaths) {
-        int length = Array.getLength(obj);
-        for (int i = 0; i < length; i++) {
-            Object item = Array.get(obj, i);
-            collectNullPaths(item, path + "[" + i + "]", visited, nullPaths);
-        }
+    public static NullReport.@Nullable Truncation validate(@Nullable Object obj, NullSink sink) {
+        return DEFAULT.validate(obj, sink);
     }
 
-    private static void recurseIntoRecord(Object obj, String path, Set<Integer> visited, List<String> nullPaths, Class<?> clazz) {
-        RecordComponent[] components = clazz.getRecordComponents();
-        for (RecordComponent component : components) {
-            try {
-                var accessor = component.getAccessor();
-                boolean wasAccessible = accessor.canAccess(obj);
-                if (!wasAccessible) {
-                    accessor.setAccessible(true);
-                }
-                try {
-                    Object value = accessor.invoke(obj);
-                    collectNullPaths(value, path + "." + component.getName(), visited, nullPaths);
-                } finally {
-                    if (!wasAccessible) {
-                        try {
-                            accessor.setAccessible(false);
-                        } catch (Exception ignored) {
-                        }
-                    }
-                }
-            } catch (Exception e) {
-                throw new RuntimeException("Failed to access record component: " + component.getName() + " at " + path + ". Is the component accessible?", e);
-            }
-        }
+    /**
+     * Validates the given object and its entire object graph, aggregating the nulls found by their wildcard path,
+     * e.g. {@code root.items[*].name x 48213}.
+     *
+     * @param obj the object to validate
+     * @return the nulls found, aggregated by wildcard path
+     * @see ConfiguredNullValidator#summarize(Object)
+     */
+    @Contract(value = "_ -> new", pure = true)
+    public static NullSummary summarize(@Nullable Object obj) {
+        return DEFAULT.summarize(obj);
     }
 
-    private static void recurseIntoMap(String path, Set<Integer> visited, List<String> nullPaths, Map<?, ?> map) {
-        for (Map.Entry<?, ?> entry : map.entrySet()) {
-            collectNullPaths(entry.getKey(), path + ".key[" + entry.getKey() + "]", visited, nullPaths);
-            collectNullPaths(entry.getValue(), path + "[" + entry.getKey() + "]", visited, nullPaths);
-        }
+    /**
+     * Finds the first null value in the object graph, in the same order as {@link #findNullPaths(Object)} would report them.
+     * Traversal stops as soon as a null is found.
+     *
+     * @param obj the object to validate
+     * @return the path of the first null found, empty if no nulls were found
+     */
+    @Contract(pure = true)
+    public static Optional<String> findFirstNullPath(@Nullable Object obj) {
+        return DEFAULT.findFirstNullPath(obj);
     }
 
-    private static void recurseIntoCollection(String path, Set<Integer> visited, List<String> nullPaths, Collection<?> collection) {
-        int index = 0;
-        for (Object item : collection) {
-            collectNullPaths(item, path + "[" + index + "]", visited, nullPaths);
-            index++;
-        }
+    /**
+     * Checks if the object and its entire object graph contain no null values.
+     * Traversal stops as soon as a null is found.
+     *
+     * @param obj the object to check
+     * @return true if no nulls are found, false otherwise
+     */
+    @Contract(value = "null -> false", pure = true)
+    public static boolean hasNoNulls(@Nullable Object obj) {
+        return DEFAULT.hasNoNulls(obj);
     }
 
-
-    private static boolean isPrimitiveOrWrapper(Class<?> clazz) {
-        return clazz.isPrimitive()
-                || clazz == Boolean.class
-                || clazz == Byte.class
-                || clazz == Character.class
-                || clazz == Short.class
-                || clazz == Integer.class
-                || clazz == Long.class
-                || clazz == Float.class
-                || clazz == Double.class
-                || Number.class.isAssignableFrom(clazz)
-                || clazz == Void.class;
+    /**
+     * Repairs the nulls in the given object graph that have an obvious replacement, like null collections and null elements,
+     * and reports the ones that are left.
+     *
+     * @param obj the object to repair
+     * @see NullSanitizer
+     */
+    public static <T> NullSanitizer.Sanitized<T> sanitize(@Nullable T obj) {
+        return SANITIZER.sanitize(obj);
     }
 }
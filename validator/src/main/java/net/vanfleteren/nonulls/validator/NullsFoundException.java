@@ -1,27 +1,91 @@
 package net.vanfleteren.nonulls.validator;
 
+import org.jspecify.annotations.Nullable;
+
+import java.io.Serial;
 import java.util.List;
 import java.util.Objects;
+
 /**
  * Exception thrown when one or more null values are found in an object graph.
  * Contains the list of paths where nulls were detected.
+ * <p>
+ * The message is only formatted when it is asked for, so rejecting invalid objects at a high rate doesn't pay for
+ * rendering all their paths. Creating the exception without a stack trace makes it cheaper still,
+ * see {@link ConfiguredNullValidator.Builder#captureStackTrace(boolean)}.
  */
 public class NullsFoundException extends RuntimeException {
-    private final List<String> nullPaths;
+    @Serial
+    private static final long serialVersionUID = 1L;
+
+    private final NullReport report;
+    private @Nullable String message;
+
+    /**
+     * An exception for the nulls in the given report, with a stack trace.
+     */
+    public NullsFoundException(NullReport report) {
+        this(report, true);
+    }
+
+    /**
+     * An exception for the nulls in the given report.
+     *
+     * @param captureStackTrace whether to fill in the stack trace, leaving it out makes creating the exception a lot cheaper
+     */
+    public NullsFoundException(NullReport report, boolean captureStackTrace) {
+        super(null, null, captureStackTrace, captureStackTrace);
+        this.report = Objects.requireNonNull(report, "report");
+    }
 
-    NullsFoundException(List<String> nullPaths) {
-        super(buildMessage(nullPaths));
-        this.nullPaths = List.copyOf(Objects.requireNonNull(nullPaths, "nullPaths"));
+    @Override
+    public String getMessage() {
+        String message = this.message;
+        if (message == null) {
+            // a race only formats the same message twice
+            message = buildMessage(report);
+            this.message = message;
+        }
+        return message;
     }
 
-    private static String buildMessage(List<String> nullPaths) {
-        return "Null value(s) found at: " + String.join(", ", nullPaths);
+    private static String buildMessage(NullReport report) {
+        if (!report.hasNulls()) {
+            return "No null values found, but validation stopped early, limit reached: " + report.truncation();
+        }
+        String message = "Null value(s) found at: " + String.join(", ", report.nullPaths());
+        if (report.isTruncated()) {
+            message += " (validation stopped early, limit reached: " + report.truncation() + ")";
+        }
+        return message;
+    }
+
+    /**
+     * The report of the validation that found the nulls.
+     */
+    public NullReport getReport() {
+        return report;
     }
 
     /**
      * Returns the paths in the object graph where nulls were found.
      */
     public List<String> getNullPaths() {
-        return nullPaths;
+        return report.nullPaths();
+    }
+
+    /**
+     * Returns the paths in the object graph where nulls were found, as structured paths.
+     */
+    public List<NullPath> getPaths() {
+        return report.paths();
+    }
+
+    /**
+     * The limit the validation reached, or null if the entire object graph was validated.
+     * When a limit was reached, the object graph might contain more nulls than reported, possibly even when none were reported.
+     */
+    public NullReport.@Nullable Truncation getTruncation() {
+        return report.truncation();
     }
 }
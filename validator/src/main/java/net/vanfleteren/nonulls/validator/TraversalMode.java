@@ -0,0 +1,42 @@
+package net.vanfleteren.nonulls.validator;
+
+/**
+ * How a validation keeps track of the objects it already visited, see {@link ConfiguredNullValidator.Builder#traversalMode(TraversalMode)}.
+ * <p>
+ * Keeping track of visited objects is what makes validating graphs with cycles possible, but it isn't free.
+ * Freshly deserialized payloads are usually trees, where no object is reachable along two paths,
+ * so they can be validated without it.
+ */
+public enum TraversalMode {
+
+    /**
+     * No object is reachable along more than one path, nothing is tracked.
+     * An object that is shared anyway is validated, and its nulls reported, once for every path leading to it.
+     * <p>
+     * A cycle would be walked forever, so unless a {@link ConfiguredNullValidator.Builder#maxDepth(int) maxDepth} is configured,
+     * a validation in this mode doesn't go deeper than {@link #DEFAULT_MAX_DEPTH}.
+     */
+    TREE,
+
+    /**
+     * Records, pojos and objects handled by custom validators can be shared, and are validated only once.
+     * Collections, arrays and maps are not tracked, they are assumed to be held by a single owner.
+     * <p>
+     * Like {@link #TREE}, a validation in this mode doesn't go deeper than {@link #DEFAULT_MAX_DEPTH}
+     * unless a {@link ConfiguredNullValidator.Builder#maxDepth(int) maxDepth} is configured.
+     */
+    DAG,
+
+    /**
+     * Any object can be shared and there can be cycles. Every object is tracked and validated only once.
+     * This is the default.
+     */
+    CYCLIC;
+
+    /**
+     * The depth a validation in {@link #TREE} or {@link #DAG} mode doesn't go beyond when no maxDepth is configured,
+     * so a cycle doesn't make it run forever. A validation that reaches it is truncated like one that reaches its maxDepth.
+     * It is the default maximum nesting depth of Jackson, so it won't get in the way of deserialized payloads.
+     */
+    public static final int DEFAULT_MAX_DEPTH = 1_000;
+}
@@ -0,0 +1,21 @@
+package net.vanfleteren.nonulls.validator;
+
+/**
+ * What a validation does with a lazily loaded object that isn't initialized, like an ORM proxy,
+ * see {@link ConfiguredNullValidator.Builder#uninitialized(UninitializedPolicy)}.
+ * <p>
+ * Lazy types are recognized by the {@link net.vanfleteren.nonulls.validator.spi.LazyBoundary} implementations on the classpath.
+ * Either way, the object isn't walked, so validating it doesn't load anything.
+ */
+public enum UninitializedPolicy {
+
+    /**
+     * The object is assumed to contain no nulls. This is the default.
+     */
+    SKIP,
+
+    /**
+     * The path of the object is reported like a null, since it can't be verified without loading it.
+     */
+    REPORT
+}
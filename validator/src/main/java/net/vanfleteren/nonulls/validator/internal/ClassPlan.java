@@ -0,0 +1,480 @@
+package net.vanfleteren.nonulls.validator.internal;
+
+import net.vanfleteren.nonulls.validator.spi.GeneratedNullValidator;
+import net.vanfleteren.nonulls.validator.spi.LazyBoundary;
+import net.vanfleteren.nonulls.validator.spi.TypeValidator;
+import org.jspecify.annotations.Nullable;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Member;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.RecordComponent;
+import java.lang.reflect.Type;
+import java.util.*;
+
+/**
+ * The validation plan for a single class: what kind of node its instances are in an object graph and,
+ * for records and pojos, which properties have to be checked, or which custom validator walks it.
+ * <p>
+ * Plans are computed once per class and cached, so validating many instances of the same type
+ * only introspects that type once.
+ */
+public final class ClassPlan {
+
+    /**
+     * The kind of node an instance of a class represents in the object graph.
+     */
+    public enum Kind {
+        /**
+         * Strings, primitives, their wrappers and arrays of primitives, no further inspection needed.
+         * Also records and pojos that only have primitive properties, e.g. {@code GeoPoint(double lat, double lon)}:
+         * they can only be null at the reference pointing to them.
+         */
+        LEAF,
+        OPTIONAL,
+        /** Lists with fast random access, walked by index instead of with an iterator. */
+        LIST,
+        /** Any other collection. */
+        COLLECTION,
+        MAP,
+        RECORD,
+        /** Arrays of objects, arrays of primitives are leaves. */
+        ARRAY,
+        /** JDK classes, fine if they are not null themselves, no need to look in their innards. */
+        OPAQUE,
+        /** Enums, fine if they are not null themselves. */
+        ENUM,
+        /** Any other class, inspected by reflecting over its fields. */
+        POJO
+    }
+
+    private static final List<TypeValidator> CUSTOM_VALIDATORS;
+
+    static {
+        // Load custom validators via ServiceLoader
+        List<TypeValidator> validators = new ArrayList<>();
+        ServiceLoader<TypeValidator> loader = ServiceLoader.load(TypeValidator.class);
+        loader.forEach(validators::add);
+        CUSTOM_VALIDATORS = Collections.unmodifiableList(validators);
+    }
+
+    private static final List<LazyBoundary> LAZY_BOUNDARIES;
+
+    static {
+        List<LazyBoundary> boundaries = new ArrayList<>();
+        ServiceLoader.load(LazyBoundary.class).forEach(boundaries::add);
+        LAZY_BOUNDARIES = Collections.unmodifiableList(boundaries);
+    }
+
+    private static final ClassValue<ClassPlan> PLANS = new ClassValue<>() {
+        @Override
+        protected ClassPlan computeValue(Class<?> type) {
+            return create(type, HiddenClassReaders.ENABLED);
+        }
+    };
+
+    private static final ClassValue<ClassPlan> REFLECTIVE_PLANS = new ClassValue<>() {
+        @Override
+        protected ClassPlan computeValue(Class<?> type) {
+            return create(type, false);
+        }
+    };
+
+    private final Kind kind;
+    private final List<Property> properties;
+    private final @Nullable PropertiesReader reader;
+    private final @Nullable TypeValidator customValidator;
+    private final @Nullable LazyBoundary lazyBoundary;
+    private final boolean immutable;
+    private final boolean walkable;
+    /** Rebuilds a record, created when it is first needed, since validating never does. */
+    private volatile @Nullable CanonicalConstructor constructor;
+
+    private ClassPlan(Kind kind, List<Property> properties, @Nullable PropertiesReader reader,
+                      @Nullable TypeValidator customValidator, @Nullable LazyBoundary lazyBoundary, boolean immutable) {
+        this.kind = kind;
+        this.properties = properties;
+        this.reader = reader;
+        this.customValidator = customValidator;
+        this.lazyBoundary = lazyBoundary;
+        this.immutable = immutable;
+        this.walkable = customValidator != null || lazyBoundary != null || kind != Kind.LEAF && kind != Kind.OPAQUE && kind != Kind.ENUM;
+    }
+
+    /**
+     * Returns the (cached) plan for the given class.
+     */
+    public static ClassPlan of(Class<?> clazz) {
+        return PLANS.get(clazz);
+    }
+
+    /**
+     * Returns the (cached) plan for the given class, with or without a {@link HiddenClassReaders hidden class} to read its properties.
+     * Without one, or when they are switched off for the whole JVM, the properties are read one by one.
+     */
+    public static ClassPlan of(Class<?> clazz, boolean hiddenClasses) {
+        return hiddenClasses ? PLANS.get(clazz) : REFLECTIVE_PLANS.get(clazz);
+    }
+
+    public Kind kind() {
+        return kind;
+    }
+
+    /**
+     * Whether instances might contain nulls, so they have to be walked or passed to a custom validator.
+     * Otherwise they only need a null check themselves.
+     */
+    public boolean walkable() {
+        return walkable;
+    }
+
+    /**
+     * The properties to check, in validation order. Only records and pojos have properties.
+     * Properties of a primitive type can never be null, so they are left out.
+     */
+    public List<Property> properties() {
+        return properties;
+    }
+
+    /**
+     * A reader for all properties at once, or null if none could be generated for this class.
+     * This is either a validator generated at compile time or a hidden class generated at runtime.
+     */
+    public @Nullable PropertiesReader reader() {
+        return reader;
+    }
+
+    /**
+     * The first custom validator that can handle this class, or null if there is none.
+     * Custom validators are never consulted for leaves.
+     */
+    public @Nullable TypeValidator customValidator() {
+        return customValidator;
+    }
+
+    /**
+     * The first lazy boundary that can handle this class, or null if there is none.
+     * Instances are only walked when the boundary says they are initialized. Lazy boundaries are never consulted for leaves.
+     */
+    public @Nullable LazyBoundary lazyBoundary() {
+        return lazyBoundary;
+    }
+
+    /**
+     * Whether this is a record whose components can only hold immutable values: leaves, enums, final JDK types,
+     * optionals of those and other such records. Once an instance is found to contain no nulls, it never will.
+     */
+    public boolean immutable() {
+        return immutable;
+    }
+
+    /**
+     * Creates a new instance of this record with its canonical constructor, with the given values for {@link #properties()}
+     * and the primitive components of the given instance.
+     *
+     * @param record the instance to take the primitive components from
+     * @param values the values of the properties, in plan order
+     * @throws IllegalAccessException if the constructor isn't accessible
+     * @throws InvocationTargetException if the constructor rejected the values
+     */
+    public Object rebuild(Object record, @Nullable Object[] values) throws ReflectiveOperationException {
+        if (kind != Kind.RECORD) {
+            throw new IllegalStateException("Only records can be rebuilt, not " + record.getClass().getName());
+        }
+        CanonicalConstructor constructor = this.constructor;
+        if (constructor == null) {
+            // racing threads create the same constructor
+            constructor = CanonicalConstructor.of(record.getClass(), properties);
+            this.constructor = constructor;
+        }
+        @Nullable Object[] arguments = new Object[constructor.sources.length];
+        try {
+            for (int i = 0; i < arguments.length; i++) {
+                MethodHandle primitive = constructor.primitives[i];
+                arguments[i] = primitive != null ? (Object) primitive.invokeExact(record) : values[constructor.sources[i]];
+            }
+            return (Object) constructor.handle.invokeExact(arguments);
+        } catch (Error e) {
+            throw e;
+        } catch (Throwable t) {
+            throw new InvocationTargetException(t);
+        }
+    }
+
+    /**
+     * The canonical constructor of a record, taking its arguments as an array.
+     *
+     * @param primitives per component, the accessor of a primitive component, whose argument is read from the record being rebuilt
+     * @param sources per component that isn't primitive, the index of its property
+     */
+    private record CanonicalConstructor(MethodHandle handle, @Nullable MethodHandle[] primitives, int[] sources) {
+
+        static CanonicalConstructor of(Class<?> clazz, List<Property> properties) throws IllegalAccessException {
+            RecordComponent[] components = clazz.getRecordComponents();
+            Class<?>[] types = new Class<?>[components.length];
+            @Nullable MethodHandle[] primitives = new MethodHandle[components.length];
+            int[] sources = new int[components.length];
+            List<String> names = properties.stream().map(Property::name).toList();
+            for (int i = 0; i < components.length; i++) {
+                types[i] = components[i].getType();
+                if (types[i].isPrimitive()) {
+                    Method accessor = components[i].getAccessor();
+                    primitives[i] = Property.lookupFor(accessor).unreflect(accessor).asType(MethodType.methodType(Object.class, Object.class));
+                } else {
+                    sources[i] = names.indexOf(components[i].getName());
+                }
+            }
+            Constructor<?> constructor;
+            try {
+                constructor = clazz.getDeclaredConstructor(types);
+            } catch (NoSuchMethodException e) {
+                throw new IllegalStateException("Record " + clazz.getName() + " has no canonical constructor", e);
+            }
+            MethodHandle handle = Property.lookupFor(constructor).unreflectConstructor(constructor)
+                    .asSpreader(Object[].class, components.length)
+                    .asType(MethodType.methodType(Object.class, Object[].class));
+            return new CanonicalConstructor(handle, primitives, sources);
+        }
+    }
+
+    private static ClassPlan create(Class<?> clazz, boolean hiddenClasses) {
+        Kind kind = kindOf(clazz);
+        LazyBoundary lazyBoundary = kind != Kind.LEAF ? findLazyBoundary(clazz) : null;
+        if (kind != Kind.LEAF) {
+            TypeValidator validator = findCustomValidator(clazz);
+            if (validator != null) {
+                // the custom validator walks the instances itself, so there is no need to introspect the class
+                return new ClassPlan(kind, List.of(), null, validator, lazyBoundary, false);
+            }
+        }
+        if (isNullFree(clazz, kind)) {
+            return new ClassPlan(Kind.LEAF, List.of(), null, null, lazyBoundary, false);
+        }
+        List<Member> members = switch (kind) {
+            case RECORD -> recordAccessors(clazz);
+            case POJO -> fields(clazz);
+            default -> List.of();
+        };
+        if (kind == Kind.RECORD || kind == Kind.POJO) {
+            GeneratedNullValidator<?> generated = GeneratedValidators.find(clazz);
+            if (generated != null) {
+                return generated(kind, generated, members, lazyBoundary);
+            }
+        }
+        List<Property> properties = new ArrayList<>(members.size());
+        for (Member member : members) {
+            properties.add(switch (member) {
+                case Field field -> withLeafElements(Property.ofField(field), field.getGenericType());
+                case Method accessor -> withLeafElements(Property.ofAccessor(accessor), accessor.getGenericReturnType());
+                default -> throw new IllegalStateException("Unsupported member " + member);
+            });
+        }
+        PropertiesReader reader = !members.isEmpty() && hiddenClasses
+                ? HiddenClassReaders.generate(clazz, members)
+                : null;
+        return new ClassPlan(kind, List.copyOf(properties), reader, null, lazyBoundary, kind == Kind.RECORD && isImmutable(clazz, new HashSet<>()));
+    }
+
+    /**
+     * A plan that reads properties through a validator generated at compile time, without any reflection.
+     * The members are only used for the declared types of the properties, and to write fields when repairing them.
+     */
+    private static <T> ClassPlan generated(Kind kind, GeneratedNullValidator<T> generated, List<Member> members, @Nullable LazyBoundary lazyBoundary) {
+        // fields hidden by a subclass share their name, both are listed from the type itself up to its superclasses
+        Map<String, Deque<Member>> byName = new HashMap<>();
+        for (Member member : members) {
+            byName.computeIfAbsent(member.getName(), name -> new ArrayDeque<>()).add(member);
+        }
+        List<Property> properties = new ArrayList<>();
+        for (String name : generated.propertyNames()) {
+            Deque<Member> named = byName.get(name);
+            properties.add(Property.generated(name, named != null ? named.poll() : null));
+        }
+        Class<T> type = generated.type();
+        PropertiesReader reader = (obj, values) -> generated.readProperties(type.cast(obj), values);
+        return new ClassPlan(kind, List.copyOf(properties), reader, null, lazyBoundary, kind == Kind.RECORD && isImmutable(type, new HashSet<>()));
+    }
+
+    private static @Nullable TypeValidator findCustomValidator(Class<?> clazz) {
+        for (TypeValidator validator : CUSTOM_VALIDATORS) {
+            if (validator.canHandle(clazz)) {
+                return validator;
+            }
+        }
+        return null;
+    }
+
+    private static @Nullable LazyBoundary findLazyBoundary(Class<?> clazz) {
+        for (LazyBoundary boundary : LAZY_BOUNDARIES) {
+            if (boundary.canHandle(clazz)) {
+                return boundary;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Adds the declared element (and key) types of a container property, e.g. the String of a {@code List<String>},
+     * when instances of that type can't have children.
+     * Only the JDK collection and map interfaces and classes are considered, their type parameters are known to be the element, key and value types.
+     */
+    private static Property withLeafElements(Property property, Type declaredType) {
+        Class<?> keyType = null;
+        Class<?> elementType = null;
+        if (declaredType instanceof Class<?> array && array.isArray()) {
+            elementType = childless(array.getComponentType());
+        } else if (declaredType instanceof ParameterizedType parameterized
+                && parameterized.getRawType() instanceof Class<?> raw
+                && raw.getName().startsWith("java.")) {
+            Type[] arguments = parameterized.getActualTypeArguments();
+            if (Collection.class.isAssignableFrom(raw) && arguments.length == 1) {
+                elementType = childless(arguments[0]);
+            } else if (Map.class.isAssignableFrom(raw) && arguments.length == 2) {
+                keyType = childless(arguments[0]);
+                elementType = childless(arguments[1]);
+            }
+        }
+        return keyType == null && elementType == null ? property : property.withLeafElements(keyType, elementType);
+    }
+
+    /**
+     * The type itself if its instances are never walked into: leaves, and opaque or null-free types without a custom validator or lazy boundary.
+     * This only looks at the kind, not at the plan, so it can't recurse into the plans of other classes.
+     */
+    private static @Nullable Class<?> childless(Type type) {
+        if (type instanceof Class<?> clazz) {
+            Kind kind = kindOf(clazz);
+            if (kind == Kind.LEAF
+                    || (kind == Kind.OPAQUE || kind == Kind.ENUM || isNullFree(clazz, kind))
+                    && findCustomValidator(clazz) == null && findLazyBoundary(clazz) == null) {
+                return clazz;
+            }
+        }
+        return null;
+    }
+
+    private static Kind kindOf(Class<?> clazz) {
+        if (clazz == String.class || isPrimitiveOrWrapper(clazz)) {
+            return Kind.LEAF;
+        }
+        // arrays of primitives can't contain nulls, whatever their length
+        if (clazz.isArray() && clazz.getComponentType().isPrimitive()) {
+            return Kind.LEAF;
+        }
+        if (Optional.class.isAssignableFrom(clazz)) {
+            return Kind.OPTIONAL;
+        }
+        if (List.class.isAssignableFrom(clazz) && RandomAccess.class.isAssignableFrom(clazz)) {
+            return Kind.LIST;
+        }
+        if (Collection.class.isAssignableFrom(clazz)) {
+            return Kind.COLLECTION;
+        }
+        if (Map.class.isAssignableFrom(clazz)) {
+            return Kind.MAP;
+        }
+        if (Record.class.isAssignableFrom(clazz)) {
+            return Kind.RECORD;
+        }
+        if (clazz.isArray()) {
+            return Kind.ARRAY;
+        }
+        if (Enum.class.isAssignableFrom(clazz)) {
+            return Kind.ENUM;
+        }
+        if (clazz.getName().startsWith("java")) {
+            return Kind.OPAQUE;
+        }
+        return Kind.POJO;
+    }
+
+    /**
+     * Whether values of the declared type are immutable and never walked into by a custom validator, see {@link #immutable()}.
+     * Like {@link #childless(Type)} this only looks at the types, not at the plans, so records referring to each other can't recurse forever.
+     *
+     * @param inProgress the records being checked, which are assumed to be immutable while checking their components
+     */
+    private static boolean isImmutable(Type type, Set<Class<?>> inProgress) {
+        if (type instanceof ParameterizedType parameterized && parameterized.getRawType() == Optional.class) {
+            return isImmutable(parameterized.getActualTypeArguments()[0], inProgress);
+        }
+        if (!(type instanceof Class<?> clazz) || findCustomValidator(clazz) != null || findLazyBoundary(clazz) != null) {
+            return false;
+        }
+        Kind kind = kindOf(clazz);
+        if (kind == Kind.LEAF || kind == Kind.ENUM || kind == Kind.OPAQUE && Modifier.isFinal(clazz.getModifiers())) {
+            return true;
+        }
+        if (kind != Kind.RECORD) {
+            return false;
+        }
+        if (!inProgress.add(clazz)) {
+            // already being checked further up
+            return true;
+        }
+        for (RecordComponent component : clazz.getRecordComponents()) {
+            if (!isImmutable(component.getGenericType(), inProgress)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Whether instances of a record or pojo can never contain a null, because all of their properties are primitives.
+     */
+    private static boolean isNullFree(Class<?> clazz, Kind kind) {
+        return switch (kind) {
+            case RECORD -> Arrays.stream(clazz.getRecordComponents()).allMatch(component -> component.getType().isPrimitive());
+            case POJO -> fields(clazz).isEmpty();
+            default -> false;
+        };
+    }
+
+    private static List<Member> recordAccessors(Class<?> clazz) {
+        List<Member> accessors = new ArrayList<>();
+        for (RecordComponent component : clazz.getRecordComponents()) {
+            if (!component.getType().isPrimitive()) {
+                accessors.add(component.getAccessor());
+            }
+        }
+        return accessors;
+    }
+
+    private static List<Member> fields(Class<?> clazz) {
+        // Iterate through class hierarchy to include inherited fields
+        List<Member> fields = new ArrayList<>();
+        Class<?> current = clazz;
+        while (current != null && current != Object.class) {
+            for (Field field : current.getDeclaredFields()) {
+                // Skip static fields, synthetic fields (like this$0) and primitives
+                if (Modifier.isStatic(field.getModifiers()) || field.isSynthetic() || field.getType().isPrimitive()) {
+                    continue;
+                }
+                fields.add(field);
+            }
+            current = current.getSuperclass();
+        }
+        return fields;
+    }
+
+    private static boolean isPrimitiveOrWrapper(Class<?> clazz) {
+        return clazz.isPrimitive()
+                || clazz == Boolean.class
+                || clazz == Byte.class
+                || clazz == Character.class
+                || clazz == Short.class
+                || clazz == Integer.class
+                || clazz == Long.class
+                || clazz == Float.class
+                || clazz == Double.class
+                || Number.class.isAssignableFrom(clazz)
+                || clazz == Void.class;
+    }
+}
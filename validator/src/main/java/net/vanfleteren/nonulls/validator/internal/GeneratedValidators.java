@@ -0,0 +1,47 @@
+package net.vanfleteren.nonulls.validator.internal;
+
+import net.vanfleteren.nonulls.validator.spi.GeneratedNullValidator;
+import org.jspecify.annotations.Nullable;
+
+/**
+ * Finds the {@link GeneratedNullValidator} generated at compile time for a type, if any.
+ */
+public final class GeneratedValidators {
+
+    private GeneratedValidators() {
+        // Utility class
+    }
+
+    /**
+     * Returns the name of the generated validator for the given type,
+     * e.g. {@code com.example.Outer_InnerNullValidator} for {@code com.example.Outer.Inner}.
+     */
+    public static String generatedName(Class<?> type) {
+        String packageName = type.getPackageName();
+        String binaryName = type.getName().substring(packageName.isEmpty() ? 0 : packageName.length() + 1);
+        return (packageName.isEmpty() ? "" : packageName + ".") + binaryName.replace('$', '_') + GeneratedNullValidator.SUFFIX;
+    }
+
+    /**
+     * Loads and instantiates the generated validator for the given type.
+     *
+     * @return the validator, or null if there is none for this type
+     */
+    public static @Nullable GeneratedNullValidator<?> find(Class<?> type) {
+        Class<?> candidate;
+        try {
+            candidate = Class.forName(generatedName(type), true, type.getClassLoader());
+        } catch (ClassNotFoundException | LinkageError e) {
+            return null;
+        }
+        if (!GeneratedNullValidator.class.isAssignableFrom(candidate)) {
+            return null;
+        }
+        try {
+            GeneratedNullValidator<?> validator = (GeneratedNullValidator<?>) candidate.getConstructor().newInstance();
+            return validator.type() == type ? validator : null;
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Generated validator " + candidate.getName() + " could not be instantiated. Is its package exported?", e);
+        }
+    }
+}
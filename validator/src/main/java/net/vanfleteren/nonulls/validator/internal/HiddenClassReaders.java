@@ -0,0 +1,292 @@
+package net.vanfleteren.nonulls.validator.internal;
+
+import org.jspecify.annotations.Nullable;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+import java.lang.reflect.Member;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.*;
+
+/**
+ * Spins a {@link PropertiesReader} per record or pojo type as a hidden class.
+ * <p>
+ * The generated {@code read} method is straight-line bytecode that reads every property directly
+ * (a {@code getfield} for pojo fields, an {@code invokevirtual} of the accessor for record components),
+ * which the JIT can inline, instead of going through reflection or method handles.
+ * <p>
+ * The hidden class is defined as a nestmate of the type it reads, so it can access private fields.
+ * This requires a private lookup in that type, which isn't available across module boundaries that aren't open.
+ * In that case, or when the class can't be defined or linked, no reader is generated and the caller has to fall back
+ * to reading the properties one by one. Other errors, like running out of memory, are thrown.
+ * <p>
+ * Generation is on by default: a reader reads the same values as the properties, and the fallback needs no configuration.
+ * It can be switched off with the system property {@value #ENABLED_PROPERTY}{@code =false},
+ * e.g. where defining classes at runtime isn't allowed, or per validator on its builder.
+ */
+public final class HiddenClassReaders {
+
+    /**
+     * System property to disable generating readers, falling back to the reflective walker.
+     */
+    public static final String ENABLED_PROPERTY = "nonulls.validator.hiddenClasses";
+
+    static final boolean ENABLED = Boolean.parseBoolean(System.getProperty(ENABLED_PROPERTY, "true"));
+
+    private static final String OBJECT = "java/lang/Object";
+    private static final String READER = PropertiesReader.class.getName().replace('.', '/');
+    private static final String READ_DESCRIPTOR = MethodType.methodType(void.class, Object.class, Object[].class).toMethodDescriptorString();
+
+    private HiddenClassReaders() {
+        // Utility class
+    }
+
+    /**
+     * Generates a reader for the given properties of the given type.
+     *
+     * @param type the record or pojo type to read
+     * @param members the fields or record accessors to read, in plan order
+     * @return the reader, or null if no reader could be generated for this type
+     */
+    public static @Nullable PropertiesReader generate(Class<?> type, List<? extends Member> members) {
+        if (!canGenerate(type, members)) {
+            return null;
+        }
+        try {
+            MethodHandles.Lookup lookup = MethodHandles.privateLookupIn(type, MethodHandles.lookup());
+            byte[] bytes = classBytes(type, members);
+            Class<?> readerClass = lookup.defineHiddenClass(bytes, true, MethodHandles.Lookup.ClassOption.NESTMATE).lookupClass();
+            return instantiate(lookup.findConstructor(readerClass, MethodType.methodType(void.class)));
+        } catch (ReflectiveOperationException | LinkageError e) {
+            // inaccessible module boundary, class loader that can't see PropertiesReader, ...
+            return null;
+        }
+    }
+
+    private static PropertiesReader instantiate(MethodHandle constructor) {
+        try {
+            return (PropertiesReader) constructor.invoke();
+        } catch (RuntimeException | Error e) {
+            throw e;
+        } catch (Throwable t) {
+            // the generated constructor only calls the one of Object
+            throw new IllegalStateException("Failed to create a reader", t);
+        }
+    }
+
+    private static boolean canGenerate(Class<?> type, List<? extends Member> members) {
+        if (type.isHidden() || type.isArray() || type.isInterface()) {
+            return false;
+        }
+        for (Member member : members) {
+            Class<?> declaringClass = member.getDeclaringClass();
+            // private members of superclasses are out of reach of a nestmate of the type itself
+            boolean reachable = declaringClass == type
+                    || !Modifier.isPrivate(member.getModifiers())
+                    && declaringClass.getClassLoader() == type.getClassLoader()
+                    && declaringClass.getPackageName().equals(type.getPackageName());
+            if (!reachable || declaringClass.isHidden()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static byte[] classBytes(Class<?> type, List<? extends Member> members) {
+        ConstantPool pool = new ConstantPool();
+        String typeName = internalName(type);
+        int thisClass = pool.classRef(typeName + "$$NullReader");
+        int superClass = pool.classRef(OBJECT);
+        int readerInterface = pool.classRef(READER);
+        int code = pool.utf8("Code");
+
+        // public <init>() { super(); }
+        byte[] constructor = new Code()
+                .op(0x2a) // aload_0
+                .op(0xb7).u2(pool.methodRef(OBJECT, "<init>", "()V")) // invokespecial
+                .op(0xb1) // return
+                .bytes();
+
+        // public void read(Object obj, Object[] values) { values[i] = ((T) obj).property; ... }
+        Code read = new Code();
+        int castTarget = pool.classRef(typeName);
+        for (int i = 0; i < members.size(); i++) {
+            read.op(0x2c); // aload_2
+            read.pushInt(i);
+            read.op(0x2b); // aload_1
+            read.op(0xc0).u2(castTarget); // checkcast
+            switch (members.get(i)) {
+                case Field field -> read.op(0xb4).u2(pool.fieldRef(internalName(field.getDeclaringClass()), field.getName(), field.getType().descriptorString())); // getfield
+                case Method accessor -> read.op(0xb6).u2(pool.methodRef(internalName(accessor.getDeclaringClass()), accessor.getName(), "()" + accessor.getReturnType().descriptorString())); // invokevirtual
+                default -> throw new IllegalArgumentException("Unsupported member " + members.get(i));
+            }
+            read.op(0x53); // aastore
+        }
+        read.op(0xb1); // return
+
+        int constructorName = pool.utf8("<init>");
+        int constructorDescriptor = pool.utf8("()V");
+        int readName = pool.utf8("read");
+        int readDescriptor = pool.utf8(READ_DESCRIPTOR);
+
+        try {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            DataOutputStream out = new DataOutputStream(bytes);
+            out.writeInt(0xCAFEBABE);
+            out.writeShort(0); // minor version
+            out.writeShort(61); // major version, Java 17
+            pool.writeTo(out);
+            out.writeShort(Modifier.PUBLIC | Modifier.FINAL | 0x0020); // ACC_SUPER
+            out.writeShort(thisClass);
+            out.writeShort(superClass);
+            out.writeShort(1);
+            out.writeShort(readerInterface);
+            out.writeShort(0); // fields
+            out.writeShort(2); // methods
+            writeMethod(out, constructorName, constructorDescriptor, code, 1, 1, constructor);
+            writeMethod(out, readName, readDescriptor, code, 3, 3, read.bytes());
+            out.writeShort(0); // class attributes
+            out.flush();
+            return bytes.toByteArray();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static void writeMethod(DataOutputStream out, int name, int descriptor, int codeAttribute, int maxStack, int maxLocals, byte[] code) throws IOException {
+        out.writeShort(Modifier.PUBLIC);
+        out.writeShort(name);
+        out.writeShort(descriptor);
+        out.writeShort(1); // attributes
+        out.writeShort(codeAttribute);
+        out.writeInt(12 + code.length);
+        out.writeShort(maxStack);
+        out.writeShort(maxLocals);
+        out.writeInt(code.length);
+        out.write(code);
+        out.writeShort(0); // exception table
+        out.writeShort(0); // code attributes
+    }
+
+    private static String internalName(Class<?> type) {
+        return type.getName().replace('.', '/');
+    }
+
+    /**
+     * Minimal constant pool builder, only supports the entries the generated readers need.
+     */
+    private static final class ConstantPool {
+        private final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        private final DataOutputStream out = new DataOutputStream(bytes);
+        private final Map<String, Integer> entries = new HashMap<>();
+        private int count = 1;
+
+        int utf8(String value) {
+            return entry("U" + value, out -> {
+                out.writeByte(1);
+                out.writeUTF(value);
+            });
+        }
+
+        int classRef(String internalName) {
+            int name = utf8(internalName);
+            return entry("C" + internalName, out -> {
+                out.writeByte(7);
+                out.writeShort(name);
+            });
+        }
+
+        int fieldRef(String owner, String name, String descriptor) {
+            return memberRef(9, owner, name, descriptor);
+        }
+
+        int methodRef(String owner, String name, String descriptor) {
+            return memberRef(10, owner, name, descriptor);
+        }
+
+        private int memberRef(int tag, String owner, String name, String descriptor) {
+            int ownerClass = classRef(owner);
+            int nameAndType = nameAndType(name, descriptor);
+            return entry(tag + owner + "." + name + ":" + descriptor, out -> {
+                out.writeByte(tag);
+                out.writeShort(ownerClass);
+                out.writeShort(nameAndType);
+            });
+        }
+
+        private int nameAndType(String name, String descriptor) {
+            int nameIndex = utf8(name);
+            int descriptorIndex = utf8(descriptor);
+            return entry("N" + name + ":" + descriptor, out -> {
+                out.writeByte(12);
+                out.writeShort(nameIndex);
+                out.writeShort(descriptorIndex);
+            });
+        }
+
+        private int entry(String key, EntryWriter writer) {
+            Integer existing = entries.get(key);
+            if (existing != null) {
+                return existing;
+            }
+            try {
+                writer.write(out);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            int index = count++;
+            entries.put(key, index);
+            return index;
+        }
+
+        void writeTo(DataOutputStream target) throws IOException {
+            out.flush();
+            target.writeShort(count);
+            bytes.writeTo(target);
+        }
+
+        @FunctionalInterface
+        private interface EntryWriter {
+            void write(DataOutputStream out) throws IOException;
+        }
+    }
+
+    /**
+     * Minimal bytecode buffer.
+     */
+    private static final class Code {
+        private final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+
+        Code op(int opcode) {
+            bytes.write(opcode);
+            return this;
+        }
+
+        Code u2(int value) {
+            bytes.write(value >>> 8);
+            bytes.write(value);
+            return this;
+        }
+
+        Code pushInt(int value) {
+            if (value <= 5) {
+                return op(0x03 + value); // iconst_<n>
+            }
+            if (value <= Byte.MAX_VALUE) {
+                return op(0x10).op(value); // bipush
+            }
+            return op(0x11).u2(value); // sipush
+        }
+
+        byte[] bytes() {
+            return bytes.toByteArray();
+        }
+    }
+}
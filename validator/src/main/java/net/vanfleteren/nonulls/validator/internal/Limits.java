@@ -0,0 +1,31 @@
+package net.vanfleteren.nonulls.validator.internal;
+
+/**
+ * The limits of a single traversal, once one of them is reached the traversal stops and reports why.
+ * They are the same for every run of a validator, the deadline of a run is passed on its own, see {@link #NO_DEADLINE}.
+ *
+ * @param maxReportedNulls the maximum number of null paths reported
+ * @param maxDepth the maximum depth of the nodes that are walked into, the root has depth 0
+ * @param maxNodes the maximum number of nodes (non-leaf objects) that are walked into
+ */
+public record Limits(int maxReportedNulls, int maxDepth, long maxNodes) {
+
+    /** The deadline of a traversal without one, otherwise it is the {@link System#nanoTime()} after which it stops. */
+    public static final long NO_DEADLINE = Long.MAX_VALUE;
+
+    public static final Limits NONE = new Limits(Integer.MAX_VALUE, Integer.MAX_VALUE, Long.MAX_VALUE);
+
+    static boolean passed(long deadline) {
+        return deadline != NO_DEADLINE && System.nanoTime() - deadline > 0;
+    }
+
+    /**
+     * The limits of a chunk of a container walked in parallel, with the nulls that are left to report.
+     * The chunks count their nodes together, against the maximum number of nodes of the whole walk.
+     *
+     * @param reportedNulls the number of nulls already reported
+     */
+    Limits forChunk(int reportedNulls) {
+        return new Limits(maxReportedNulls - reportedNulls, maxDepth, maxNodes);
+    }
+}
@@ -0,0 +1,107 @@
+package net.vanfleteren.nonulls.validator.internal;
+
+import net.vanfleteren.nonulls.validator.NullPath;
+import net.vanfleteren.nonulls.validator.spi.LazyBoundary;
+import org.jspecify.annotations.Nullable;
+
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * How a node of an object graph that isn't null is walked: what to walk in its place, how its children are found,
+ * and how the properties of records and pojos are read.
+ * <p>
+ * Both the {@link Traversal} that looks for nulls and the {@link Repair} that repairs them walk nodes through these,
+ * so they always agree on which children a node has.
+ */
+final class Nodes {
+
+    /** Returned by {@link #resolve(Object, ClassPlan)} for a lazy object that isn't initialized, walking it would load it. */
+    static final Object UNINITIALIZED = new Object();
+
+    /**
+     * How the children of a node are found.
+     */
+    enum Shape {
+        /** Leaves, JDK classes and enums, fine if they are not null themselves. */
+        NONE,
+        /** The value of an optional, at the same path as the optional itself. */
+        VALUE,
+        /** The elements of a list with fast random access, by index. */
+        LIST,
+        /** The elements of any other collection, in iteration order. */
+        ITERATOR,
+        /** The keys and values of a map. */
+        ENTRIES,
+        /** The elements of an object array. */
+        ARRAY,
+        /** The properties of a record or pojo, see {@link #readProperties(Object, ClassPlan, Object[], Supplier)}. */
+        PROPERTIES,
+        /** Whatever the custom validator of the class passes back. */
+        CUSTOM
+    }
+
+    private Nodes() {
+    }
+
+    /**
+     * The object to walk in place of the given one: the object itself, or for a lazy object, the object behind it.
+     * That is null for an initialized reference to nothing and {@link #UNINITIALIZED} when it isn't initialized.
+     */
+    static @Nullable Object resolve(Object obj, ClassPlan plan) {
+        LazyBoundary lazyBoundary = plan.lazyBoundary();
+        if (lazyBoundary == null) {
+            return obj;
+        }
+        if (!lazyBoundary.isInitialized(obj)) {
+            return UNINITIALIZED;
+        }
+        return lazyBoundary.unwrap(obj);
+    }
+
+    /**
+     * How the children of an instance of the plan are found. Custom validators take precedence over the kind of the class.
+     */
+    static Shape shape(ClassPlan plan) {
+        if (plan.customValidator() != null) {
+            return Shape.CUSTOM;
+        }
+        return switch (plan.kind()) {
+            case OPTIONAL -> Shape.VALUE;
+            case LIST -> Shape.LIST;
+            case COLLECTION -> Shape.ITERATOR;
+            case MAP -> Shape.ENTRIES;
+            case ARRAY -> Shape.ARRAY;
+            case RECORD, POJO -> Shape.PROPERTIES;
+            // only walked when a custom validator handles them
+            case LEAF, OPAQUE, ENUM -> Shape.NONE;
+        };
+    }
+
+    /**
+     * Reads the properties of a record or pojo into {@code values}, in the order of {@link ClassPlan#properties()}.
+     *
+     * @param path the path of the object, only asked for when a property can't be read
+     */
+    static void readProperties(Object obj, ClassPlan plan, @Nullable Object[] values, Supplier<NullPath> path) {
+        String description = plan.kind() == ClassPlan.Kind.RECORD ? "record component" : "field";
+        PropertiesReader reader = plan.reader();
+        if (reader != null) {
+            try {
+                reader.read(obj, values);
+            } catch (RuntimeException e) {
+                throw new RuntimeException("Failed to access " + description + "s of " + obj.getClass().getName() + " at " + path.get(), e);
+            }
+            return;
+        }
+        List<Property> properties = plan.properties();
+        for (int i = 0; i < properties.size(); i++) {
+            Property property = properties.get(i);
+            try {
+                values[i] = property.read(obj);
+            } catch (Exception e) {
+                throw new RuntimeException("Failed to access " + description + ": " + property.name() + " at " + path.get() + ". Is the " + description + " accessible?", e);
+            }
+        }
+    }
+}
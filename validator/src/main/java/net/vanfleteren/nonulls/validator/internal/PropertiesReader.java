@@ -0,0 +1,17 @@
+package net.vanfleteren.nonulls.validator.internal;
+
+import org.jspecify.annotations.Nullable;
+
+/**
+ * Reads all properties of a record or pojo in one go.
+ * <p>
+ * Implementations are generated at runtime per type by {@link HiddenClassReaders}, so they have to be public.
+ * They are not meant to be implemented by hand.
+ */
+public interface PropertiesReader {
+
+    /**
+     * Reads the properties of the given object into {@code values}, in the order of {@link ClassPlan#properties()}.
+     */
+    void read(Object obj, @Nullable Object[] values);
+}
@@ -0,0 +1,190 @@
+package net.vanfleteren.nonulls.validator.internal;
+
+import org.jspecify.annotations.Nullable;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.AccessibleObject;
+import java.lang.reflect.Field;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Member;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+
+/**
+ * A single property of a record or pojo that has to be checked for nulls: a record component or a field.
+ * <p>
+ * The underlying member is resolved once into a {@link MethodHandle}, so reading the property doesn't need
+ * any access checks or accessibility toggling anymore. The same goes for writing a field, when a null in it is repaired.
+ */
+public final class Property {
+
+    private static final MethodType GETTER_TYPE = MethodType.methodType(Object.class, Object.class);
+    private static final MethodType SETTER_TYPE = MethodType.methodType(void.class, Object.class, Object.class);
+
+    private final String name;
+    private final Class<?> type;
+    private final @Nullable MethodHandle getter;
+    private final @Nullable IllegalAccessException accessFailure;
+    private final @Nullable MethodHandle setter;
+    private final @Nullable Class<?> leafKeyType;
+    private final @Nullable Class<?> leafElementType;
+
+    private Property(String name, Class<?> type, @Nullable MethodHandle getter, @Nullable IllegalAccessException accessFailure,
+                     @Nullable MethodHandle setter, @Nullable Class<?> leafKeyType, @Nullable Class<?> leafElementType) {
+        this.name = name;
+        this.type = type;
+        this.getter = getter;
+        this.accessFailure = accessFailure;
+        this.setter = setter;
+        this.leafKeyType = leafKeyType;
+        this.leafElementType = leafElementType;
+    }
+
+    static Property ofField(Field field) {
+        MethodHandles.Lookup lookup = lookupFor(field);
+        MethodHandle setter = setterFor(lookup, field);
+        try {
+            return new Property(field.getName(), field.getType(), lookup.unreflectGetter(field).asType(GETTER_TYPE), null, setter, null, null);
+        } catch (IllegalAccessException e) {
+            return new Property(field.getName(), field.getType(), null, e, setter, null, null);
+        }
+    }
+
+    static Property ofAccessor(Method accessor) {
+        try {
+            return new Property(accessor.getName(), accessor.getReturnType(), lookupFor(accessor).unreflect(accessor).asType(GETTER_TYPE), null, null, null, null);
+        } catch (IllegalAccessException e) {
+            return new Property(accessor.getName(), accessor.getReturnType(), null, e, null, null, null);
+        }
+    }
+
+    /**
+     * A property that is only ever read through a generated validator.
+     *
+     * @param member the field or record accessor it reads, null if there is none by that name
+     */
+    static Property generated(String name, @Nullable Member member) {
+        IllegalAccessException e = new IllegalAccessException("Property " + name + " can only be read through its generated validator");
+        return switch (member) {
+            case Field field -> new Property(name, field.getType(), null, e, setterFor(lookupFor(field), field), null, null);
+            case Method accessor -> new Property(name, accessor.getReturnType(), null, e, null, null, null);
+            case null, default -> new Property(name, Object.class, null, e, null, null, null);
+        };
+    }
+
+    /**
+     * A setter for a field that isn't final, null if there is none or it isn't accessible.
+     */
+    private static @Nullable MethodHandle setterFor(MethodHandles.Lookup lookup, Field field) {
+        if (Modifier.isFinal(field.getModifiers())) {
+            return null;
+        }
+        try {
+            return lookup.unreflectSetter(field).asType(SETTER_TYPE);
+        } catch (IllegalAccessException e) {
+            return null;
+        }
+    }
+
+    /**
+     * This property with the declared key and element types of its container type that can't have children themselves.
+     */
+    Property withLeafElements(@Nullable Class<?> keyType, @Nullable Class<?> elementType) {
+        return new Property(name, type, getter, accessFailure, setter, keyType, elementType);
+    }
+
+    /**
+     * Finds a lookup that is allowed to access the given member.
+     * Prefers a private lookup in the declaring class, which is permitted when the package is open to us.
+     * Across module boundaries that aren't open, falls back to making the member itself accessible,
+     * and finally to the public lookup, which can only access public members of exported packages.
+     */
+    static MethodHandles.Lookup lookupFor(Member member) {
+        try {
+            return MethodHandles.privateLookupIn(member.getDeclaringClass(), MethodHandles.lookup());
+        } catch (IllegalAccessException | SecurityException e) {
+            if (member instanceof AccessibleObject accessible && accessible.trySetAccessible()) {
+                return MethodHandles.lookup();
+            }
+            return MethodHandles.publicLookup();
+        }
+    }
+
+    /**
+     * The name of the property, as it appears in null paths.
+     */
+    public String name() {
+        return name;
+    }
+
+    /**
+     * The declared type of the property, only values of this type can be put in its place.
+     */
+    public Class<?> type() {
+        return type;
+    }
+
+    /**
+     * For a map property, the declared key type if keys of exactly that type can't contain nulls (e.g. the String of a
+     * {@code Map<String, Integer>}), so they only need a null check. Null otherwise.
+     */
+    public @Nullable Class<?> leafKeyType() {
+        return leafKeyType;
+    }
+
+    /**
+     * For a collection, array or map property, the declared element (or value) type if elements of exactly that type
+     * can't contain nulls (e.g. the String of a {@code List<String>}), so they only need a null check. Null otherwise.
+     */
+    public @Nullable Class<?> leafElementType() {
+        return leafElementType;
+    }
+
+    /**
+     * Reads the value of this property from the given object.
+     *
+     * @throws IllegalAccessException if the property could not be made accessible
+     * @throws InvocationTargetException if reading the property (e.g. calling a record accessor) failed
+     */
+    public @Nullable Object read(Object obj) throws ReflectiveOperationException {
+        if (getter == null) {
+            assert accessFailure != null;
+            throw accessFailure;
+        }
+        try {
+            return (Object) getter.invokeExact(obj);
+        } catch (Error e) {
+            throw e;
+        } catch (Throwable t) {
+            throw new InvocationTargetException(t);
+        }
+    }
+
+    /**
+     * Whether this property can be set with {@link #write(Object, Object)}, only fields that aren't final and are accessible can.
+     * Record components can only be set by rebuilding the record, see {@link ClassPlan#rebuild(Object, Object[])}.
+     */
+    public boolean writable() {
+        return setter != null;
+    }
+
+    /**
+     * Sets the value of this property on the given object.
+     *
+     * @throws IllegalStateException if the property isn't {@link #writable()}
+     */
+    public void write(Object obj, @Nullable Object value) {
+        if (setter == null) {
+            throw new IllegalStateException("Property " + name + " can't be written");
+        }
+        try {
+            setter.invokeExact(obj, value);
+        } catch (RuntimeException | Error e) {
+            throw e;
+        } catch (Throwable t) {
+            throw new IllegalStateException("Failed to write property " + name, t);
+        }
+    }
+}
@@ -0,0 +1,580 @@
+package net.vanfleteren.nonulls.validator.internal;
+
+import net.vanfleteren.nonulls.validator.NullPath;
+import net.vanfleteren.nonulls.validator.NullReport.Truncation;
+import net.vanfleteren.nonulls.validator.TraversalMode;
+import net.vanfleteren.nonulls.validator.UninitializedPolicy;
+import org.jspecify.annotations.Nullable;
+
+import java.lang.reflect.Array;
+import java.util.*;
+import java.util.function.Supplier;
+
+/**
+ * Walks an object graph and repairs the nulls it can, in a single pass:
+ * null collections, maps and arrays become empty ones, null optionals become empty optionals,
+ * null elements are removed from collections and arrays and entries with a null value are removed from maps.
+ * <p>
+ * Mutable containers and pojos are repaired in place. Records and unmodifiable containers can't be,
+ * so a repaired copy is created instead, records with their canonical constructor,
+ * and put in place of the original in the object holding it. When that isn't possible either,
+ * because the object holding it can't be changed or the copy isn't of its declared type,
+ * the nulls below the original are left as they are and reported as unrepaired, by walking it with a {@link Traversal}.
+ * <p>
+ * Objects of a type handled by a custom validator are never repaired, only their nulls are reported.
+ * Uninitialized lazy objects are left alone, so repairing never loads them.
+ * <p>
+ * The children of every node are found through {@link Nodes}, exactly like a {@link Traversal} finds them.
+ * Like a traversal, the walk is iterative: it keeps its own stack of the containers, records and pojos being repaired,
+ * so a deep graph can't overflow the call stack. It doesn't go deeper than the given maximum depth.
+ * A repair is not thread-safe and can only be run once.
+ */
+public final class Repair {
+
+    /** Stands in for a null element that is removed from its container. */
+    private static final Object REMOVED = new Object();
+
+    /** Returned instead of a result when a frame was pushed for the child, its result is only known when the frame is done. */
+    private static final Object PENDING = new Object();
+
+    /** The empty containers a null can be replaced with, the first one the declared type can hold is used. */
+    private static final List<Map.Entry<Class<?>, Supplier<Object>>> EMPTY_CONTAINERS = List.of(
+            Map.entry(ArrayList.class, ArrayList::new),
+            Map.entry(LinkedHashSet.class, LinkedHashSet::new),
+            Map.entry(TreeSet.class, TreeSet::new),
+            Map.entry(LinkedHashMap.class, LinkedHashMap::new),
+            Map.entry(TreeMap.class, TreeMap::new));
+
+    private final boolean treatNullCollectionsAsEmpty;
+    private final boolean treatNullOptionalsAsEmpty;
+    private final boolean filterNullsInCollections;
+    private final boolean filterNullValuesInMaps;
+    private final int maxDepth;
+
+    /** The repaired objects and what they were replaced with, themselves if they were repaired in place. */
+    private final IdentityHashMap<Object, Object> repaired = new IdentityHashMap<>();
+    private final List<NullPath> fixed = new ArrayList<>();
+    private final List<NullPath> unfixed = new ArrayList<>();
+    private final Traversal traversal = new Traversal();
+    private final Deque<Frame> stack = new ArrayDeque<>();
+    private @Nullable Truncation truncation;
+
+    public Repair(boolean treatNullCollectionsAsEmpty, boolean treatNullOptionalsAsEmpty,
+                  boolean filterNullsInCollections, boolean filterNullValuesInMaps, int maxDepth) {
+        this.treatNullCollectionsAsEmpty = treatNullCollectionsAsEmpty;
+        this.treatNullOptionalsAsEmpty = treatNullOptionalsAsEmpty;
+        this.filterNullsInCollections = filterNullsInCollections;
+        this.filterNullValuesInMaps = filterNullValuesInMaps;
+        this.maxDepth = maxDepth;
+    }
+
+    /**
+     * Repairs the graph starting at the given root.
+     *
+     * @return the root, or a repaired copy of it when it is a record
+     */
+    public @Nullable Object run(@Nullable Object root) {
+        if (root == null) {
+            // there is no telling what it should have been
+            unfixed.add(NullPath.root());
+            return null;
+        }
+        Object result = start(root, NullPath.root(), 0, root.getClass());
+        while (result == PENDING) {
+            Frame frame = stack.getLast();
+            if (frame.index < frame.children.length) {
+                repairNext(frame);
+                continue;
+            }
+            stack.removeLast();
+            Object value = complete(frame);
+            Frame parent = stack.peekLast();
+            if (parent == null) {
+                result = value;
+            } else {
+                accept(parent, parent.index - 1, value);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * The paths of the nulls that were repaired, in traversal order.
+     */
+    public List<NullPath> fixed() {
+        return fixed;
+    }
+
+    /**
+     * The paths of the nulls that are left, in traversal order.
+     */
+    public List<NullPath> unfixed() {
+        return unfixed;
+    }
+
+    /**
+     * {@link Truncation#MAX_DEPTH} if part of the graph was too deep to be repaired, null otherwise.
+     */
+    public @Nullable Truncation truncation() {
+        return truncation;
+    }
+
+    /**
+     * Starts repairing a child that isn't null. Returns what to put in its place: itself, or a repaired copy of the given type,
+     * or {@link #PENDING} when a frame was pushed to repair its children.
+     */
+    private Object start(Object child, NullPath path, int depth, Class<?> type) {
+        int fixedMark = fixed.size();
+        int unfixedMark = unfixed.size();
+        ClassPlan plan = ClassPlan.of(child.getClass());
+        if (!plan.walkable()) {
+            return child;
+        }
+        Object target = Nodes.resolve(child, plan);
+        if (target == Nodes.UNINITIALIZED) {
+            // repairing it would load it
+            return child;
+        }
+        if (target == null) {
+            // an initialized reference to nothing, the reference itself is kept
+            unfixed.add(path.renderKeys());
+            return child;
+        }
+        if (target != child) {
+            // e.g. the entity behind a proxy, the proxy itself is kept
+            if (start(target, path, depth, target.getClass()) == PENDING) {
+                stack.getLast().proxy = child;
+                return PENDING;
+            }
+            return child;
+        }
+        Object known = repaired.get(child);
+        if (known != null) {
+            return settle(child, known, path, type, fixedMark, unfixedMark);
+        }
+        if (depth > maxDepth) {
+            truncation = Truncation.MAX_DEPTH;
+            return child;
+        }
+        // a cycle leading back to it while it is being repaired keeps the original
+        repaired.put(child, child);
+        Nodes.Shape shape = Nodes.shape(plan);
+        @Nullable Object[] children = switch (shape) {
+            case CUSTOM -> {
+                // never repaired, only reported
+                reportNulls(child, path);
+                yield null;
+            }
+            case VALUE -> ((Optional<?>) child).map(value -> new Object[]{value}).orElse(null);
+            case LIST, ITERATOR -> ((Collection<?>) child).toArray();
+            case ENTRIES -> entries(uncheckedMap(child));
+            case ARRAY -> ((Object[]) child).clone();
+            case PROPERTIES -> {
+                @Nullable Object[] values = new Object[plan.properties().size()];
+                Nodes.readProperties(child, plan, values, () -> path);
+                yield values;
+            }
+            case NONE -> null;
+        };
+        if (children == null) {
+            return child;
+        }
+        stack.addLast(new Frame(child, plan, shape, path, depth, type, fixedMark, unfixedMark, children));
+        return PENDING;
+    }
+
+    /**
+     * The keys and values of a map, one after the other.
+     */
+    private static @Nullable Object[] entries(Map<@Nullable Object, @Nullable Object> map) {
+        @Nullable Object[] entries = new Object[map.size() * 2];
+        int i = 0;
+        for (Map.Entry<?, ?> entry : map.entrySet()) {
+            entries[i++] = entry.getKey();
+            entries[i++] = entry.getValue();
+        }
+        return entries;
+    }
+
+    /**
+     * Returns what to put in place of a child that was repaired: the result, or the child itself when the result isn't of the given type.
+     * In that case the nulls left in the child are reported.
+     */
+    private Object settle(Object child, Object result, NullPath path, Class<?> type, int fixedMark, int unfixedMark) {
+        if (result != child && !type.isInstance(result)) {
+            keep(child, path, fixedMark, unfixedMark);
+            return child;
+        }
+        return result;
+    }
+
+    /**
+     * Keeps an object that couldn't be replaced by its repaired copy, reporting the nulls left in it,
+     * instead of what was reported since the given marks.
+     */
+    private void keep(Object original, NullPath path, int fixedMark, int unfixedMark) {
+        unfixed.subList(unfixedMark, unfixed.size()).clear();
+        reportNulls(original, path);
+        // nulls repaired in place, in mutable objects below the original, stay repaired
+        Set<NullPath> left = new HashSet<>(unfixed.subList(unfixedMark, unfixed.size()));
+        fixed.subList(fixedMark, fixed.size()).removeIf(left::contains);
+    }
+
+    private void reportNulls(Object obj, NullPath path) {
+        traversal.run(obj, path, unfixed::add, TraversalMode.CYCLIC, Limits.NONE, Limits.NO_DEADLINE, null, UninitializedPolicy.SKIP);
+    }
+
+    /**
+     * Repairs the next child of the frame, or starts to when a frame is pushed for it.
+     */
+    private void repairNext(Frame frame) {
+        int i = frame.index++;
+        frame.childFixedMark = fixed.size();
+        frame.childUnfixedMark = unfixed.size();
+        Object child = frame.children[i];
+        NullPath path = frame.childPath(i);
+        if (child == null) {
+            accept(frame, i, repairNull(frame, i, path));
+            return;
+        }
+        Object result = start(child, path, frame.depth + 1, frame.childType(i));
+        if (result != PENDING) {
+            accept(frame, i, result);
+        }
+    }
+
+    /**
+     * What to put in place of a null child of the frame: an empty container or optional, {@link #REMOVED}, or null if it can't be repaired.
+     */
+    private @Nullable Object repairNull(Frame frame, int i, NullPath path) {
+        Object result = switch (frame.shape) {
+            case PROPERTIES -> emptyFor(frame.childType(i));
+            // null keys are never repaired
+            case ENTRIES -> i % 2 == 1 && filterNullValuesInMaps ? REMOVED : null;
+            default -> filterNullsInCollections ? REMOVED : null;
+        };
+        if (result != null) {
+            fixed.add(path.renderKeys());
+        } else {
+            unfixed.add(path.renderKeys());
+        }
+        return result;
+    }
+
+    /**
+     * Puts what replaces a child of the frame in its place. A field of a pojo is written right away.
+     */
+    private void accept(Frame frame, int i, @Nullable Object result) {
+        Object child = frame.children[i];
+        if (result == child) {
+            return;
+        }
+        frame.changed = true;
+        frame.results[i] = result;
+        if (frame.shape == Nodes.Shape.PROPERTIES && frame.plan.kind() == ClassPlan.Kind.POJO) {
+            Property property = frame.plan.properties().get(i);
+            if (!write(frame.obj, property, result)) {
+                // e.g. a final field, the pojo keeps its nulls
+                NullPath path = frame.childPath(i);
+                if (child == null) {
+                    unfixed.subList(frame.childUnfixedMark, unfixed.size()).clear();
+                    fixed.subList(frame.childFixedMark, fixed.size()).clear();
+                    unfixed.add(path.renderKeys());
+                } else {
+                    keep(child, path, frame.childFixedMark, frame.childUnfixedMark);
+                }
+            }
+        }
+    }
+
+    /**
+     * Applies the repairs of the children of a frame that is done, and returns what to put in its place.
+     */
+    private Object complete(Frame frame) {
+        Object obj = frame.obj;
+        Object result = frame.changed ? finish(frame) : obj;
+        repaired.put(obj, result);
+        Object value = settle(obj, result, frame.path, frame.type, frame.fixedMark, frame.unfixedMark);
+        return frame.proxy != null ? frame.proxy : value;
+    }
+
+    private Object finish(Frame frame) {
+        Object obj = frame.obj;
+        @Nullable Object[] results = frame.results;
+        return switch (frame.shape) {
+            case VALUE -> Optional.ofNullable(results[0]);
+            case LIST -> replace(uncheckedList(obj), results);
+            case ITERATOR -> replace(uncheckedCollection(obj), frame.children, results);
+            case ENTRIES -> replace(uncheckedMap(obj), frame.children, results);
+            case ARRAY -> replace((Object[]) obj, results);
+            // pojos are repaired in place, as their fields are repaired
+            case PROPERTIES -> frame.plan.kind() != ClassPlan.Kind.RECORD ? obj : rebuild(frame);
+            case CUSTOM, NONE -> obj;
+        };
+    }
+
+    private Object rebuild(Frame frame) {
+        Object obj = frame.obj;
+        try {
+            return frame.plan.rebuild(obj, frame.results);
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            // e.g. the compact constructor rejected a value, the record keeps its nulls
+            keep(obj, frame.path, frame.fixedMark, frame.unfixedMark);
+            return obj;
+        }
+    }
+
+    /**
+     * What to put in place of a null of the given declared type, or null if it can't be repaired.
+     */
+    private @Nullable Object emptyFor(Class<?> type) {
+        if (treatNullCollectionsAsEmpty) {
+            if (type.isArray()) {
+                return Array.newInstance(type.getComponentType(), 0);
+            }
+            if (Collection.class.isAssignableFrom(type) || Map.class.isAssignableFrom(type)) {
+                for (Map.Entry<Class<?>, Supplier<Object>> empty : EMPTY_CONTAINERS) {
+                    if (type.isAssignableFrom(empty.getKey())) {
+                        return empty.getValue().get();
+                    }
+                }
+            }
+        }
+        if (treatNullOptionalsAsEmpty && type == Optional.class) {
+            return Optional.empty();
+        }
+        return null;
+    }
+
+    /**
+     * Replaces the elements of a list in place, so they keep their position, or returns a copy when it can't be changed.
+     */
+    private static Object replace(List<@Nullable Object> list, @Nullable Object[] values) {
+        try {
+            ListIterator<@Nullable Object> iterator = list.listIterator();
+            for (Object value : values) {
+                Object element = iterator.next();
+                if (value == REMOVED) {
+                    iterator.remove();
+                } else if (value != element) {
+                    iterator.set(value);
+                }
+            }
+            return list;
+        } catch (UnsupportedOperationException e) {
+            return copy(new ArrayList<>(), values);
+        }
+    }
+
+    private static Object replace(Collection<@Nullable Object> collection, @Nullable Object[] elements, @Nullable Object[] values) {
+        if (collection instanceof List<?>) {
+            // e.g. a LinkedList
+            return replace(uncheckedList(collection), values);
+        }
+        try {
+            boolean replaces = false;
+            for (int i = 0; i < values.length; i++) {
+                replaces |= values[i] != REMOVED && values[i] != elements[i];
+            }
+            if (!replaces) {
+                collection.removeIf(Objects::isNull);
+                return collection;
+            }
+            // adding and removing a replaced element would move it to the end, the collection is refilled in its order
+            List<@Nullable Object> ordered = new ArrayList<>();
+            copy(ordered, values);
+            // adding first, so an unmodifiable collection fails before anything is removed
+            collection.add(ordered.getFirst());
+            collection.clear();
+            collection.addAll(ordered);
+            return collection;
+        } catch (UnsupportedOperationException e) {
+            Collection<@Nullable Object> copy = switch (collection) {
+                case SortedSet<?> sorted -> new TreeSet<>(uncheckedComparator(sorted.comparator()));
+                case Set<?> set -> new LinkedHashSet<>();
+                default -> new ArrayList<>();
+            };
+            return copy(copy, values);
+        }
+    }
+
+    private static Collection<@Nullable Object> copy(Collection<@Nullable Object> copy, @Nullable Object[] values) {
+        for (Object value : values) {
+            if (value != REMOVED) {
+                copy.add(value);
+            }
+        }
+        return copy;
+    }
+
+    /**
+     * Applies the repairs of the keys and values of a map, given one after the other, like its entries.
+     */
+    private static Object replace(Map<@Nullable Object, @Nullable Object> map, @Nullable Object[] entries, @Nullable Object[] results) {
+        boolean rekeyed = false;
+        for (int i = 0; i < entries.length; i += 2) {
+            rekeyed |= results[i] != entries[i] && results[i + 1] != REMOVED;
+        }
+        try {
+            if (rekeyed && !(map instanceof SortedMap<?, ?>)) {
+                // removing and putting a repaired key would move it to the end, the map is refilled in its order
+                Map<@Nullable Object, @Nullable Object> ordered = copy(new LinkedHashMap<>(), results);
+                // putting first, so an unmodifiable map fails before anything is removed
+                Map.Entry<@Nullable Object, @Nullable Object> first = ordered.entrySet().iterator().next();
+                map.put(first.getKey(), first.getValue());
+                map.clear();
+                map.putAll(ordered);
+                return map;
+            }
+            // replacing values first, so an unmodifiable map fails before anything is removed,
+            // a replaced value keeps its position
+            for (int i = 0; i < entries.length; i += 2) {
+                if (results[i] == entries[i] && results[i + 1] != entries[i + 1] && results[i + 1] != REMOVED) {
+                    map.put(results[i], results[i + 1]);
+                }
+            }
+            for (int i = 0; i < entries.length; i += 2) {
+                if (results[i] != entries[i] || results[i + 1] == REMOVED) {
+                    map.remove(entries[i]);
+                }
+            }
+            for (int i = 0; i < entries.length; i += 2) {
+                if (results[i] != entries[i] && results[i + 1] != REMOVED) {
+                    map.put(results[i], results[i + 1]);
+                }
+            }
+            return map;
+        } catch (UnsupportedOperationException e) {
+            Map<@Nullable Object, @Nullable Object> copy = map instanceof SortedMap<?, ?> sorted
+                    ? new TreeMap<>(uncheckedComparator(sorted.comparator()))
+                    : new LinkedHashMap<>();
+            return copy(copy, results);
+        }
+    }
+
+    /**
+     * Puts the repaired keys and values, given one after the other, in the given map, leaving out the removed entries.
+     */
+    private static Map<@Nullable Object, @Nullable Object> copy(Map<@Nullable Object, @Nullable Object> copy, @Nullable Object[] results) {
+        for (int i = 0; i < results.length; i += 2) {
+            if (results[i + 1] != REMOVED) {
+                copy.put(results[i], results[i + 1]);
+            }
+        }
+        return copy;
+    }
+
+    private static Object replace(@Nullable Object[] array, @Nullable Object[] values) {
+        int kept = 0;
+        for (int i = 0; i < values.length; i++) {
+            if (values[i] != REMOVED) {
+                array[i] = values[i];
+                kept++;
+            }
+        }
+        if (kept == array.length) {
+            return array;
+        }
+        // removing elements takes a shorter array
+        @Nullable Object[] copy = (Object[]) Array.newInstance(array.getClass().getComponentType(), kept);
+        int j = 0;
+        for (Object value : values) {
+            if (value != REMOVED) {
+                copy[j++] = value;
+            }
+        }
+        return copy;
+    }
+
+    private static boolean write(Object pojo, Property property, @Nullable Object value) {
+        if (!property.writable()) {
+            return false;
+        }
+        try {
+            property.write(pojo, value);
+            return true;
+        } catch (RuntimeException e) {
+            return false;
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static List<@Nullable Object> uncheckedList(Object obj) {
+        return (List<@Nullable Object>) obj;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Collection<@Nullable Object> uncheckedCollection(Object obj) {
+        return (Collection<@Nullable Object>) obj;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<@Nullable Object, @Nullable Object> uncheckedMap(Object obj) {
+        return (Map<@Nullable Object, @Nullable Object>) obj;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static @Nullable Comparator<Object> uncheckedComparator(@Nullable Comparator<?> comparator) {
+        return (Comparator<Object>) comparator;
+    }
+
+    /**
+     * An optional, container, record or pojo being repaired, with the repairs of its children.
+     */
+    private static final class Frame {
+        final Object obj;
+        final ClassPlan plan;
+        final Nodes.Shape shape;
+        final NullPath path;
+        final int depth;
+        /** The type the slot holding the object is declared with, a copy of another type can't replace it. */
+        final Class<?> type;
+        /** What was reported before the object was repaired. */
+        final int fixedMark;
+        final int unfixedMark;
+        /** The children: the value of an optional, the elements, the keys and values one after the other, or the property values. */
+        final @Nullable Object[] children;
+        /** What to put in place of the children, filled in as they are repaired. */
+        final @Nullable Object[] results;
+        /** The position of the next child, the current child is the one before it. */
+        int index;
+        boolean changed;
+        int childFixedMark;
+        int childUnfixedMark;
+        /** The lazy object this is the target of, which is kept in its place whatever the repair of the target. */
+        @Nullable Object proxy;
+
+        Frame(Object obj, ClassPlan plan, Nodes.Shape shape, NullPath path, int depth, Class<?> type, int fixedMark, int unfixedMark,
+              @Nullable Object[] children) {
+            this.obj = obj;
+            this.plan = plan;
+            this.shape = shape;
+            this.path = path;
+            this.depth = depth;
+            this.type = type;
+            this.fixedMark = fixedMark;
+            this.unfixedMark = unfixedMark;
+            this.children = children;
+            // an Object[], the children of an array are in an array of its own type
+            this.results = Arrays.copyOf(children, children.length, Object[].class);
+        }
+
+        NullPath childPath(int i) {
+            return switch (shape) {
+                // a present value is at the same path
+                case VALUE -> path;
+                case ENTRIES -> i % 2 == 0 ? path.mapKey(children[i]) : path.key(children[i - 1]);
+                case PROPERTIES -> path.property(plan.properties().get(i).name());
+                default -> path.index(i);
+            };
+        }
+
+        Class<?> childType(int i) {
+            return switch (shape) {
+                case ARRAY -> obj.getClass().getComponentType();
+                case PROPERTIES -> plan.properties().get(i).type();
+                default -> Object.class;
+            };
+        }
+    }
+}
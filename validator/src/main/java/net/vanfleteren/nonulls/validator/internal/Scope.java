@@ -0,0 +1,235 @@
+package net.vanfleteren.nonulls.validator.internal;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Path patterns compiled into a matcher that decides which nodes of a graph are validated.
+ * <p>
+ * A pattern is a path relative to the root, like {@code orders[*].lines[*].sku} or {@code customer.**}, made of:
+ * <ul>
+ *     <li>property names, e.g. {@code orders}</li>
+ *     <li>{@code *}: any single property</li>
+ *     <li>{@code [*]}: any element of a collection, array or map, keys and values alike</li>
+ *     <li>{@code **}: any number of properties and elements, including none</li>
+ * </ul>
+ * The patterns are compiled into a nondeterministic automaton with one state per step of every pattern, at most 63 in total.
+ * The set of states a node is in is a single {@code long} bitmask: the state of a child is computed from the state of
+ * its parent and the property name or element it is, without allocating. A node in no state at all can't be
+ * on the way to a match, so the traversal doesn't walk into it.
+ * <p>
+ * A null is in scope when its path matches a pattern, or when it was matched by a step other than {@code **},
+ * so it's missing on the way to a match: a null {@code orders} is reported for {@code orders[*].lines[*].sku},
+ * but not every null in the graph is reported for {@code **.sku}. The highest bit of the mask says whether the last step
+ * was such a step.
+ * <p>
+ * Immutable and thread-safe.
+ */
+public final class Scope {
+
+    public static final int MAX_STEPS = 63;
+
+    private static final int NAME = 0;
+    private static final int ANY_PROPERTY = 1;
+    private static final int ANY_ELEMENT = 2;
+    private static final int ANY_PATH = 3;
+    /** The state past the last step of a pattern, reached when the whole pattern matched. */
+    private static final int END = 4;
+    /** The bit set in the states of a node matched by a step other than {@code **}. */
+    private static final long MATCHED_STEP = 1L << 63;
+
+    private final List<String> patterns;
+    /** Per state: the kind of its step, and the property name for {@link #NAME} steps. */
+    private final int[] kinds;
+    private final String[] names;
+    /** Per state: the states reached from it by an element, or by any property, closed over {@code **} steps. */
+    private final long[] elementNext;
+    private final long[] anyPropertyNext;
+    /** Per state: the states reached from it by the property of its {@link #NAME} step. */
+    private final long[] nameNext;
+    private final long rootState;
+    /** The states that still have a step to match, rather than being the end of a pattern. */
+    private final long stepStates;
+    private final long endStates;
+
+    private Scope(List<String> patterns, List<Integer> kinds, List<String> names) {
+        int size = kinds.size();
+        this.patterns = List.copyOf(patterns);
+        this.kinds = new int[size];
+        this.names = new String[size];
+        for (int i = 0; i < size; i++) {
+            this.kinds[i] = kinds.get(i);
+            this.names[i] = names.get(i);
+        }
+        long[] closures = new long[size];
+        // a ** step can match nothing, so its state is also in the state after it
+        for (int i = size - 1; i >= 0; i--) {
+            closures[i] = 1L << i;
+            if (this.kinds[i] == ANY_PATH) {
+                closures[i] |= closures[i + 1];
+            }
+        }
+        this.elementNext = new long[size];
+        this.anyPropertyNext = new long[size];
+        this.nameNext = new long[size];
+        long starts = 0;
+        long steps = 0;
+        long ends = 0;
+        for (int i = 0; i < size; i++) {
+            switch (this.kinds[i]) {
+                case NAME -> nameNext[i] = closures[i + 1] | MATCHED_STEP;
+                case ANY_PROPERTY -> anyPropertyNext[i] = closures[i + 1] | MATCHED_STEP;
+                case ANY_ELEMENT -> elementNext[i] = closures[i + 1] | MATCHED_STEP;
+                case ANY_PATH -> {
+                    elementNext[i] = closures[i];
+                    anyPropertyNext[i] = closures[i];
+                }
+                default -> {}
+            }
+            if (this.kinds[i] != END) {
+                steps |= 1L << i;
+            } else {
+                ends |= 1L << i;
+            }
+            if (i == 0 || this.kinds[i - 1] == END) {
+                starts |= closures[i];
+            }
+        }
+        // the root is the start of every path, a null root is always reported
+        this.rootState = starts | MATCHED_STEP;
+        this.stepStates = steps;
+        this.endStates = ends;
+    }
+
+    /**
+     * Compiles the given patterns, a node is in scope when it is on the way to a match of any of them.
+     *
+     * @throws IllegalArgumentException if a pattern can't be parsed, or the patterns have more than {@link #MAX_STEPS} steps in total
+     */
+    public static Scope compile(List<String> patterns) {
+        if (patterns.isEmpty()) {
+            throw new IllegalArgumentException("At least one pattern is needed");
+        }
+        List<Integer> kinds = new ArrayList<>();
+        List<String> names = new ArrayList<>();
+        for (String pattern : patterns) {
+            parse(pattern, kinds, names);
+            kinds.add(END);
+            names.add("");
+        }
+        if (kinds.size() > MAX_STEPS) {
+            throw new IllegalArgumentException("The patterns have " + kinds.size() + " steps, counting the end of every pattern, at most " + MAX_STEPS + " are supported: " + patterns);
+        }
+        return new Scope(patterns, kinds, names);
+    }
+
+    private static void parse(String pattern, List<Integer> kinds, List<String> names) {
+        if (pattern.isEmpty()) {
+            throw new IllegalArgumentException("A pattern can't be empty");
+        }
+        int i = 0;
+        boolean first = true;
+        while (i < pattern.length()) {
+            if (pattern.startsWith("[*]", i)) {
+                kinds.add(ANY_ELEMENT);
+                names.add("");
+                i += 3;
+            } else {
+                if (!first) {
+                    if (pattern.charAt(i) != '.') {
+                        throw invalid(pattern, i, "expected '.' or '[*]'");
+                    }
+                    i++;
+                }
+                int end = i;
+                while (end < pattern.length() && pattern.charAt(end) != '.' && pattern.charAt(end) != '[') {
+                    end++;
+                }
+                String name = pattern.substring(i, end);
+                if (name.isEmpty()) {
+                    throw invalid(pattern, i, "expected a property name, '*' or '**'");
+                }
+                kinds.add(switch (name) {
+                    case "*" -> ANY_PROPERTY;
+                    case "**" -> ANY_PATH;
+                    default -> {
+                        if (name.indexOf('*') >= 0 || name.indexOf(']') >= 0) {
+                            throw invalid(pattern, i, "'*' can only be a whole segment");
+                        }
+                        yield NAME;
+                    }
+                });
+                names.add(name);
+                i = end;
+            }
+            first = false;
+        }
+    }
+
+    private static IllegalArgumentException invalid(String pattern, int index, String reason) {
+        return new IllegalArgumentException("Invalid pattern '" + pattern + "' at index " + index + ": " + reason);
+    }
+
+    /**
+     * The state of the root.
+     */
+    public long root() {
+        return rootState;
+    }
+
+    /**
+     * The state of the property with the given name of a node in the given state.
+     */
+    public long property(long state, String name) {
+        long next = 0;
+        for (long remaining = state & stepStates; remaining != 0; remaining &= remaining - 1) {
+            int i = Long.numberOfTrailingZeros(remaining);
+            next |= anyPropertyNext[i];
+            if (kinds[i] == NAME && names[i].equals(name)) {
+                next |= nameNext[i];
+            }
+        }
+        return next;
+    }
+
+    /**
+     * The state of an element, key or value, of a node in the given state.
+     */
+    public long element(long state) {
+        long next = 0;
+        for (long remaining = state & stepStates; remaining != 0; remaining &= remaining - 1) {
+            next |= elementNext[Long.numberOfTrailingZeros(remaining)];
+        }
+        return next;
+    }
+
+    /**
+     * The given state of a node without the steps of the states it was already walked in, or 0 when there are none left.
+     * Walking the node again in that state only walks into the part of it that wasn't in scope before.
+     *
+     * @param walked the states the node was walked in, combined
+     */
+    public long without(long state, long walked) {
+        long steps = state & stepStates & ~walked;
+        return steps == 0 ? 0 : steps | state & ~stepStates;
+    }
+
+    /**
+     * Whether a node in the given state is in scope: a null there is reported.
+     */
+    public boolean reports(long state) {
+        return (state & (endStates | MATCHED_STEP)) != 0;
+    }
+
+    /**
+     * Whether the children of a node in the given state can be in scope, so the node has to be walked.
+     */
+    public boolean walks(long state) {
+        return (state & stepStates) != 0;
+    }
+
+    @Override
+    public String toString() {
+        return String.join(", ", patterns);
+    }
+}
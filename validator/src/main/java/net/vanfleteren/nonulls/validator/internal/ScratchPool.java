@@ -0,0 +1,85 @@
+package net.vanfleteren.nonulls.validator.internal;
+
+import org.jspecify.annotations.Nullable;
+
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Supplier;
+
+/**
+ * A small pool of scratch objects that are reused between validations, like a traversal with its stack and visited set.
+ * <p>
+ * Unlike a {@link ThreadLocal}, the pool isn't tied to threads: a short-lived virtual thread reuses the objects released
+ * by the ones before it, whichever carrier thread they ran on. Objects are kept in a fixed number of slots and are taken
+ * and put back with a compare-and-set, without locking. When no object is available a new one is created,
+ * and when there is no free slot to put one back in, it is dropped.
+ * <p>
+ * Thread-safe.
+ */
+public final class ScratchPool<T> {
+
+    /** The number of slots looked at to take or put back an object, so a busy pool doesn't cost a full scan. */
+    private static final int MAX_PROBES = 4;
+    private static final int MAX_SIZE = 1 << 10;
+
+    private final AtomicReferenceArray<@Nullable T> slots;
+    private final int mask;
+    private final int probes;
+    private final Supplier<T> factory;
+
+    /**
+     * A pool with two slots per available processor.
+     */
+    public ScratchPool(Supplier<T> factory) {
+        this(Runtime.getRuntime().availableProcessors() * 2, factory);
+    }
+
+    /**
+     * @param size the number of objects kept, rounded up to a power of two
+     */
+    public ScratchPool(int size, Supplier<T> factory) {
+        if (size < 1) {
+            throw new IllegalArgumentException("size should be at least 1, but was " + size);
+        }
+        int capacity = size == 1 ? 1 : Integer.highestOneBit(Math.min(size, MAX_SIZE) - 1) << 1;
+        this.slots = new AtomicReferenceArray<>(capacity);
+        this.mask = capacity - 1;
+        this.probes = Math.min(MAX_PROBES, capacity);
+        this.factory = factory;
+    }
+
+    /**
+     * Takes an object from the pool, or creates a new one if none is available.
+     * It is owned by the caller until it is {@link #release(Object) released}.
+     */
+    public T acquire() {
+        int start = home();
+        for (int i = 0; i < probes; i++) {
+            int slot = (start + i) & mask;
+            T pooled = slots.get(slot);
+            if (pooled != null && slots.compareAndSet(slot, pooled, null)) {
+                return pooled;
+            }
+        }
+        return factory.get();
+    }
+
+    /**
+     * Puts an object, reset for its next use, back in the pool.
+     */
+    public void release(T scratch) {
+        int start = home();
+        for (int i = 0; i < probes; i++) {
+            int slot = (start + i) & mask;
+            if (slots.get(slot) == null && slots.compareAndSet(slot, null, scratch)) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * The first slot looked at by the current thread, so threads running at the same time tend to use different slots.
+     */
+    private int home() {
+        return (int) Thread.currentThread().threadId() & mask;
+    }
+}
@@ -0,0 +1,1116 @@
+package net.vanfleteren.nonulls.validator.internal;
+
+import net.vanfleteren.nonulls.validator.NullPath;
+import net.vanfleteren.nonulls.validator.NullReport.Truncation;
+import net.vanfleteren.nonulls.validator.TraversalMode;
+import net.vanfleteren.nonulls.validator.UninitializedPolicy;
+import net.vanfleteren.nonulls.validator.spi.IdentitySet;
+import net.vanfleteren.nonulls.validator.spi.LazyBoundary;
+import net.vanfleteren.nonulls.validator.spi.NullSink;
+import net.vanfleteren.nonulls.validator.spi.RecursiveValidator;
+import net.vanfleteren.nonulls.validator.spi.TypeValidator;
+import org.jspecify.annotations.Nullable;
+
+import java.io.Serial;
+import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Walks an object graph looking for nulls.
+ * <p>
+ * The walk is iterative: instead of recursing into every nested object, the containers being walked are kept
+ * on an explicit stack of frames, so arbitrarily deep graphs (long linked structures, deeply nested trees)
+ * can't overflow the call stack. Children are visited depth-first in the same order a recursive walk would visit them,
+ * so the null paths are reported in the same order.
+ * <p>
+ * The path of a node is only created when a null is found below it: until then, a frame only knows its parent frame
+ * is positioned at it. Together with the reuse of the frames and the visited set, a traversal that is run again and
+ * again doesn't allocate anything while walking a graph without nulls, apart from the iterators of collections that aren't lists
+ * and of maps, and what custom validators, parallel walks and scopes need.
+ * <p>
+ * Lazily loaded objects, recognized by a {@link LazyBoundary}, are only walked once they are initialized,
+ * a traversal never loads anything.
+ * <p>
+ * A traversal is not thread-safe, but can be run again once a run is done.
+ * A run stops early when it reaches one of its {@link Limits}.
+ */
+public final class Traversal {
+
+    /** The deadline is checked once every 1024 nodes, reading the clock isn't free. */
+    private static final long DEADLINE_CHECK_MASK = 0x3FF;
+    /** Stacks larger than this are released after a run instead of being kept for the next one. */
+    private static final int MAX_RETAINED_FRAMES = 1 << 10;
+    /** Frames release the children they buffered for a custom validator after a node with more than this many, instead of keeping the arrays. */
+    private static final int MAX_RETAINED_CHILDREN = 1 << 10;
+    /** The chunks of a parallel walk add their nodes to the count they share this many at a time, so they rarely contend for it. */
+    private static final long NODE_BATCH = 256;
+    private static final NullSink NO_SINK = path -> {};
+
+    private final IdentitySet visited;
+    /**
+     * With a scope, the states the tracked objects were walked in. An object reached again is walked again
+     * in the states it wasn't walked in yet, since a different path can bring other parts of it in scope.
+     */
+    private final IdentityHashMap<Object, Long> walkedStates = new IdentityHashMap<>();
+    /** The sink passed to custom validators, the nulls they report count towards the limits like any other. */
+    private final NullSink customSink = this::report;
+    private final @Nullable ValidatedCache cache;
+    private final @Nullable ForkJoinPool pool;
+    private final int parallelThreshold;
+    /** Whether properties are read through hidden classes, see {@link ClassPlan#of(Class, boolean)}. */
+    private final boolean hiddenClasses;
+    /** For a traversal of a chunk of a container split in parallel: the traversal that split it. */
+    private final @Nullable Traversal parent;
+    /** The depth of the nodes this traversal starts at: 0 for the root, deeper for a chunk of a container walked in parallel. */
+    private final int baseDepth;
+    /** For a traversal of a chunk of a container split in parallel: the chunk, which collects its nulls. */
+    private @Nullable Chunk chunk;
+
+    private TraversalMode mode = TraversalMode.CYCLIC;
+    private NullSink sink = NO_SINK;
+    private Limits limits = Limits.NONE;
+    private long deadline = Limits.NO_DEADLINE;
+    /** The nodes to validate, or null to validate the entire graph. */
+    private @Nullable Scope scope;
+    private UninitializedPolicy uninitialized = UninitializedPolicy.SKIP;
+    private boolean running;
+    private int reportedNulls;
+    private long nodes;
+    /** The number of nodes after which the limit is checked: the maximum for a run, the next batch for a chunk. */
+    private long checkedNodes = Long.MAX_VALUE;
+    /** For a traversal of a chunk, when the number of nodes is limited: the nodes all chunks of the parallel walk walked together. */
+    private @Nullable AtomicLong sharedNodes;
+    /** The nodes of this chunk that are already added to {@link #sharedNodes}. */
+    private long countedNodes;
+    /** The number of nodes that might contain nulls but weren't walked: already visited, too deep, or not initialized. */
+    private long unverified;
+    private @Nullable Truncation truncation;
+
+    private Frame[] stack = new Frame[16];
+    private int top = -1;
+
+    /** The frame collecting the children passed back by the custom validator that is currently running. */
+    private @Nullable Frame collecting;
+    private final RecursiveValidator childCollector = (obj, path, visited, nullSink) -> collectChild(obj, path);
+    /** The path of the node walked by the frame on top of the stack, for the nodes that fail to be read. */
+    private final Supplier<NullPath> topPath = () -> path(top);
+
+    /**
+     * A sequential traversal.
+     */
+    public Traversal() {
+        this(null, null, Integer.MAX_VALUE, true);
+    }
+
+    /**
+     * A traversal that can be run again and again.
+     * When a cache is given, immutable records in it are skipped and immutable records found to contain no nulls are added to it.
+     * When a pool is given, it splits collections, object arrays and maps with at least {@code parallelThreshold} elements
+     * into chunks that are walked in parallel in the given pool.
+     * <p>
+     * The null paths of the chunks are merged in the same order as a sequential walk would report them.
+     * Every chunk has its own visited set on top of the visited set of the traversal that split it,
+     * so an object shared between elements of different chunks is validated by each of them. Along with every null,
+     * a chunk remembers the tracked objects it was found in. The chunks are merged in order, together with their visited sets,
+     * and a null found in an object that an earlier chunk already visited is dropped, like a sequential walk wouldn't have visited it again.
+     * The result doesn't depend on how many chunks there are.
+     * <p>
+     * The chunks count the nodes they walk together, a batch at a time, so a parallel walk stops when it walked more nodes than allowed
+     * as a whole, whichever chunk the nodes happen to be in.
+     * <p>
+     * Without hidden classes, the properties of records and pojos are read one by one instead of through a {@link HiddenClassReaders hidden class}.
+     */
+    public Traversal(@Nullable ValidatedCache cache, @Nullable ForkJoinPool pool, int parallelThreshold, boolean hiddenClasses) {
+        this(new IdentitySet(), cache, pool, parallelThreshold, hiddenClasses, null, 0);
+    }
+
+    private Traversal(IdentitySet visited, @Nullable ValidatedCache cache, @Nullable ForkJoinPool pool, int parallelThreshold,
+                      boolean hiddenClasses, @Nullable Traversal parent, int baseDepth) {
+        this.visited = visited;
+        this.cache = cache;
+        this.pool = pool;
+        this.parallelThreshold = Math.max(2, parallelThreshold);
+        this.hiddenClasses = hiddenClasses;
+        this.parent = parent;
+        this.baseDepth = baseDepth;
+    }
+
+    /**
+     * Walks the graph starting at the given root within the given limits and before the given deadline, passing the path of every null found to the sink.
+     * The given mode decides which of the visited objects are tracked.
+     * With a scope, only the nodes in scope are walked and only the nulls in scope are reported.
+     * The given policy decides what happens with lazily loaded objects that aren't initialized.
+     *
+     * @return the limit that stopped the run early, or null if it walked the entire graph
+     */
+    public @Nullable Truncation run(@Nullable Object root, NullPath rootPath, NullSink sink, TraversalMode mode, Limits limits, long deadline,
+                                    @Nullable Scope scope, UninitializedPolicy uninitialized) {
+        if (running) {
+            throw new IllegalStateException("The traversal is already running");
+        }
+        running = true;
+        this.sink = sink;
+        this.mode = mode;
+        this.limits = limits;
+        this.deadline = deadline;
+        this.checkedNodes = limits.maxNodes();
+        this.scope = scope;
+        this.uninitialized = uninitialized;
+        try {
+            try {
+                visit(root, rootPath, scope != null ? scope.root() : 0);
+                drain();
+            } catch (Stop stop) {
+                // stopped early, by a limit or because the sink is done
+            }
+            return truncation;
+        } finally {
+            reset();
+        }
+    }
+
+    /**
+     * Prepares this traversal for the next run, dropping all references to the graph it walked.
+     */
+    private void reset() {
+        unwind();
+        if (stack.length > MAX_RETAINED_FRAMES) {
+            stack = new Frame[16];
+        }
+        visited.clear();
+        walkedStates.clear();
+        truncation = null;
+        reportedNulls = 0;
+        nodes = 0;
+        checkedNodes = Long.MAX_VALUE;
+        unverified = 0;
+        collecting = null;
+        sink = NO_SINK;
+        limits = Limits.NONE;
+        deadline = Limits.NO_DEADLINE;
+        scope = null;
+        uninitialized = UninitializedPolicy.SKIP;
+        running = false;
+    }
+
+    /**
+     * Walks all frames on the stack until it is empty.
+     */
+    private void drain() {
+        while (top >= 0) {
+            Frame frame = stack[top];
+            if (!advance(frame)) {
+                if (frame.validated != null) {
+                    cacheIfNullFree(frame);
+                }
+                pop();
+            }
+        }
+    }
+
+    /**
+     * Drops all frames left after the traversal was stopped.
+     */
+    private void unwind() {
+        while (top >= 0) {
+            pop();
+        }
+    }
+
+    private void truncate(Truncation reason) {
+        if (truncation == null) {
+            truncation = reason;
+        }
+    }
+
+    /**
+     * Stops the whole traversal, because one of its limits was reached.
+     */
+    private void stop(Truncation reason) {
+        truncate(reason);
+        throw Stop.INSTANCE;
+    }
+
+    private void report(NullPath path) {
+        report(path, Ancestors.NONE);
+    }
+
+    /**
+     * Reports a null found in a chunk, with the tracked objects it was found in below the frames of this traversal.
+     */
+    private void report(NullPath path, Ancestors innerAncestors) {
+        if (reportedNulls == limits.maxReportedNulls()) {
+            stop(Truncation.MAX_REPORTED_NULLS);
+        }
+        reportedNulls++;
+        // the path no longer refers to the keys of the graph once it's reported
+        path.renderKeys();
+        Chunk chunk = this.chunk;
+        if (chunk != null) {
+            chunk.add(path, ancestors(innerAncestors));
+            return;
+        }
+        sink.accept(path);
+        if (sink.isDone()) {
+            // the sink has seen enough, this isn't a truncation
+            throw Stop.INSTANCE;
+        }
+    }
+
+    /**
+     * The tracked objects walked by the frames on the stack, followed by the given ones.
+     */
+    private Ancestors ancestors(Ancestors innerAncestors) {
+        int count = 0;
+        for (int i = 0; i <= top; i++) {
+            if (stack[i].tracked != null) {
+                count++;
+            }
+        }
+        if (count == 0) {
+            return innerAncestors;
+        }
+        int inner = innerAncestors.objects.length;
+        Object[] objects = new Object[count + inner];
+        long[] states = new long[count + inner];
+        int j = 0;
+        for (int i = 0; i <= top; i++) {
+            Object tracked = stack[i].tracked;
+            if (tracked != null) {
+                objects[j] = tracked;
+                states[j++] = stack[i].state;
+            }
+        }
+        System.arraycopy(innerAncestors.objects, 0, objects, count, inner);
+        System.arraycopy(innerAncestors.states, 0, states, count, inner);
+        return new Ancestors(objects, states);
+    }
+
+    /**
+     * Visits a single node: reports it when it's null, otherwise pushes a frame to walk its children, if it has any.
+     * Without a path, the node is the child the frame on top of the stack is positioned at, see {@link #childPath(int)}.
+     *
+     * @param state the state of the node in the scope, if any
+     */
+    private void visit(@Nullable Object obj, @Nullable NullPath path, long state) {
+        if (obj == null) {
+            if (reports(state)) {
+                report(path != null ? path : childPath(top));
+            }
+            return;
+        }
+        ClassPlan plan = ClassPlan.of(obj.getClass(), hiddenClasses);
+        // leaves, jdk classes and enums are fine if they are not null themselves
+        if (plan.walkable() && walks(state)) {
+            visit(obj, plan, path, null, state);
+        }
+    }
+
+    /**
+     * Visits a node that has to be walked, with its plan, the value of the given property if it's not null.
+     * When the property declares container elements that can't have children, those only get a null check.
+     */
+    private void visit(Object obj, ClassPlan plan, @Nullable NullPath path, @Nullable Property property, long state) {
+        // the frame of the parent, if any, is on top of the stack
+        if (baseDepth + top + 1 > limits.maxDepth()) {
+            truncate(Truncation.MAX_DEPTH);
+            unverified++;
+            return;
+        }
+
+        Object target = Nodes.resolve(obj, plan);
+        if (target == Nodes.UNINITIALIZED) {
+            // walking it would load it
+            if (uninitialized == UninitializedPolicy.REPORT && reports(state)) {
+                report(pathOf(path));
+            }
+            unverified++;
+            return;
+        }
+        if (target == null) {
+            // an initialized reference to nothing
+            if (reports(state)) {
+                report(pathOf(path));
+            }
+            return;
+        }
+        if (target != obj) {
+            // e.g. the entity behind a proxy, walked at the same path
+            obj = target;
+            plan = ClassPlan.of(target.getClass(), hiddenClasses);
+            if (!plan.walkable()) {
+                return;
+            }
+        }
+
+        if (cache != null && plan.immutable() && cache.contains(obj)) {
+            return;
+        }
+
+        // Avoid infinite loops for circular references, and walking shared objects twice
+        boolean tracked = tracks(plan);
+        if (tracked && scope != null) {
+            // only walked in the steps it wasn't walked in yet
+            state = markWalked(obj, state);
+            if (state == 0) {
+                unverified++;
+                return;
+            }
+        } else if (tracked && !markVisited(obj)) {
+            unverified++;
+            return;
+        }
+        // a chunk remembers the tracked objects its nulls are found in
+        Object ancestor = tracked && chunk != null ? obj : null;
+
+        if (++nodes > checkedNodes && !countNodes()) {
+            stop(Truncation.MAX_NODES);
+        }
+        if ((nodes & DEADLINE_CHECK_MASK) == 0 && Limits.passed(deadline)) {
+            stop(Truncation.DEADLINE);
+        }
+
+        switch (Nodes.shape(plan)) {
+            // the plan remembers which custom validator handles the class
+            case CUSTOM -> visitCustom(Objects.requireNonNull(plan.customValidator()), obj, path, state, ancestor);
+
+            // empty optionals are allowed, a present value is validated at the same path
+            case VALUE -> {
+                Optional<?> optional = (Optional<?>) obj;
+                if (optional.isPresent()) {
+                    visit(optional.get(), path, state);
+                }
+            }
+
+            case LIST -> {
+                List<?> list = (List<?>) obj;
+                if (splitsInParallel(list.size())) {
+                    visitInParallel(list.toArray(), false, pathOf(path), property, state, ancestor);
+                } else {
+                    Frame frame = push(Frame.LIST, path, state);
+                    frame.tracked = ancestor;
+                    frame.list = list;
+                    frame.length = list.size();
+                    frame.leafElementType = property != null ? property.leafElementType() : null;
+                }
+            }
+
+            case ITERATOR -> {
+                Collection<?> collection = (Collection<?>) obj;
+                if (splitsInParallel(collection.size())) {
+                    visitInParallel(collection.toArray(), false, pathOf(path), property, state, ancestor);
+                } else if (!collection.isEmpty()) {
+                    // an empty collection doesn't need an iterator
+                    Frame frame = push(Frame.ITERATOR, path, state);
+                    frame.tracked = ancestor;
+                    frame.iterator = collection.iterator();
+                    frame.leafElementType = property != null ? property.leafElementType() : null;
+                }
+            }
+
+            case ENTRIES -> {
+                Map<?, ?> map = (Map<?, ?>) obj;
+                if (splitsInParallel(map.size())) {
+                    visitInParallel(map.entrySet().toArray(), true, pathOf(path), property, state, ancestor);
+                } else if (!map.isEmpty()) {
+                    Frame frame = push(Frame.MAP, path, state);
+                    frame.tracked = ancestor;
+                    frame.iterator = map.entrySet().iterator();
+                    if (property != null) {
+                        frame.leafKeyType = property.leafKeyType();
+                        frame.leafElementType = property.leafElementType();
+                    }
+                }
+            }
+
+            case PROPERTIES -> pushProperties(obj, path, plan, state, ancestor);
+
+            case ARRAY -> {
+                Object[] array = (Object[]) obj;
+                if (splitsInParallel(array.length)) {
+                    visitInParallel(array, false, pathOf(path), property, state, ancestor);
+                } else {
+                    Frame frame = push(Frame.ARRAY, path, state);
+                    frame.tracked = ancestor;
+                    frame.array = array;
+                    frame.length = array.length;
+                    frame.leafElementType = property != null ? property.leafElementType() : null;
+                }
+            }
+
+            case NONE -> {}
+        }
+    }
+
+    private boolean splitsInParallel(int size) {
+        return pool != null && size >= parallelThreshold;
+    }
+
+    /**
+     * For a chunk, adds the nodes it walked since the last time to the count it shares with the other chunks of the parallel walk.
+     * The count never includes nodes that weren't walked yet, so a chunk only stops when the walk as a whole walked too many.
+     *
+     * @return false when all chunks together walked more nodes than allowed
+     */
+    private boolean countNodes() {
+        AtomicLong shared = sharedNodes;
+        if (shared == null) {
+            return false;
+        }
+        long total = shared.addAndGet(nodes - countedNodes);
+        countedNodes = nodes;
+        checkedNodes = nodes + NODE_BATCH;
+        return total <= limits.maxNodes();
+    }
+
+    /**
+     * Whether objects of the plan are tracked in the visited set, in the mode of this traversal.
+     */
+    private boolean tracks(ClassPlan plan) {
+        return switch (mode) {
+            case CYCLIC -> true;
+            case DAG -> Nodes.shape(plan) == Nodes.Shape.CUSTOM || Nodes.shape(plan) == Nodes.Shape.PROPERTIES;
+            case TREE -> false;
+        };
+    }
+
+    /**
+     * Whether the object was not visited yet by this traversal or the traversals that split off the chunk it is walking.
+     * Marks it as visited.
+     */
+    private boolean markVisited(Object obj) {
+        for (Traversal ancestor = parent; ancestor != null; ancestor = ancestor.parent) {
+            // the ancestors are waiting for this chunk to complete, so their visited sets are stable
+            if (ancestor.visited.contains(obj)) {
+                return false;
+            }
+        }
+        return visited.add(obj);
+    }
+
+    /**
+     * Marks the object as walked in the given state of the scope, and visited.
+     * Returns the state to walk it in, without the steps this traversal or the traversals that split off the chunk it is walking
+     * already walked it in, see {@link Scope#without(long, long)}. That is 0 when there are none left.
+     */
+    private long markWalked(Object obj, long state) {
+        Scope scope = Objects.requireNonNull(this.scope);
+        long walked = 0;
+        for (Traversal traversal = this; traversal != null; traversal = traversal.parent) {
+            Long states = traversal.walkedStates.get(obj);
+            if (states != null) {
+                walked |= states;
+            }
+        }
+        long remaining = scope.without(state, walked);
+        if (remaining != 0) {
+            walkedStates.merge(obj, state, (a, b) -> a | b);
+            visited.add(obj);
+        }
+        return remaining;
+    }
+
+    /**
+     * Whether this traversal already walked the object in all steps of the given state.
+     */
+    private boolean walked(Object obj, long state) {
+        if (scope == null) {
+            return visited.contains(obj);
+        }
+        Long walked = walkedStates.get(obj);
+        return walked != null && scope.without(state, walked) == 0;
+    }
+
+    /**
+     * Adds the immutable record walked by the frame to the cache, if no nulls were found in it.
+     * Children that weren't walked, because they were already visited elsewhere or too deep, might contain nulls,
+     * so the record isn't cached when there were any.
+     */
+    private void cacheIfNullFree(Frame frame) {
+        if (reportedNulls == frame.reportedNullsAtPush && unverified == frame.unverifiedAtPush) {
+            Objects.requireNonNull(cache).add(Objects.requireNonNull(frame.validated));
+        }
+    }
+
+    /**
+     * Splits the elements of a large container into chunks, walks them in parallel and merges the results in order.
+     *
+     * @param elements the elements, or the map entries
+     * @param entries whether the elements are map entries
+     * @param property the property holding the container, if any
+     * @param container the container, if a chunk walking it has to remember it for the nulls found in it
+     * @param state the state of the container in the scope, if any
+     */
+    private void visitInParallel(@Nullable Object[] elements, boolean entries, NullPath path, @Nullable Property property, long state,
+                                 @Nullable Object container) {
+        ForkJoinPool pool = Objects.requireNonNull(this.pool);
+        int chunkSize = Math.max(parallelThreshold / 2, elements.length / (pool.getParallelism() * 4) + 1);
+        // the chunks count their nodes together, so they can walk as many nodes as a sequential walk, however they are spread
+        AtomicLong shared = limits.maxNodes() == Long.MAX_VALUE ? null : sharedNodes != null ? sharedNodes : new AtomicLong(nodes);
+        Limits chunkLimits = limits.forChunk(reportedNulls);
+        List<Chunk> chunks = new ArrayList<>();
+        for (int from = 0; from < elements.length; from += chunkSize) {
+            int to = Math.min(elements.length, from + chunkSize);
+            chunks.add(new Chunk(elements, entries, from, to, path, property, chunkLimits, shared, elementState(state)));
+        }
+        if (ForkJoinTask.inForkJoinPool() && ForkJoinTask.getPool() == pool) {
+            ForkJoinTask.invokeAll(chunks);
+        } else {
+            pool.invoke(new RecursiveAction() {
+                @Override
+                protected void compute() {
+                    invokeAll(chunks);
+                }
+            });
+        }
+        for (Chunk chunk : chunks) {
+            for (int i = 0; i < chunk.nullPaths.size(); i++) {
+                Ancestors ancestors = chunk.ancestors.get(i);
+                // found in an object an earlier chunk walked, and reported itself if it still had to be
+                if (!anyWalked(ancestors)) {
+                    report(chunk.nullPaths.get(i), container != null ? ancestors.with(container, state) : ancestors);
+                }
+            }
+            visited.addAll(chunk.visited);
+            chunk.traversal.walkedStates.forEach((obj, states) -> walkedStates.merge(obj, states, (a, b) -> a | b));
+            nodes += chunk.traversal.nodes;
+            if (sharedNodes != null) {
+                // a chunk splitting a container, its chunks already counted their nodes
+                countedNodes += chunk.traversal.nodes;
+                checkedNodes += chunk.traversal.nodes;
+            } else if (nodes > limits.maxNodes()) {
+                // the chunks only counted their last nodes when they were done
+                stop(Truncation.MAX_NODES);
+            }
+            unverified += chunk.traversal.unverified;
+            Truncation chunkTruncation = chunk.traversal.truncation;
+            if (chunkTruncation == Truncation.MAX_DEPTH) {
+                truncate(chunkTruncation);
+            } else if (chunkTruncation != null) {
+                // the chunk stopped early, so the chunks after it can't be reported in order
+                stop(chunkTruncation);
+            }
+        }
+    }
+
+    private boolean anyWalked(Ancestors ancestors) {
+        for (int i = 0; i < ancestors.objects.length; i++) {
+            if (walked(ancestors.objects[i], ancestors.states[i])) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * The tracked objects a null was found in, from the outermost one, with the states they were walked in.
+     */
+    private record Ancestors(Object[] objects, long[] states) {
+        static final Ancestors NONE = new Ancestors(new Object[0], new long[0]);
+
+        /**
+         * These ancestors, below the given one.
+         */
+        Ancestors with(Object outer, long state) {
+            Object[] withOuter = new Object[objects.length + 1];
+            long[] withState = new long[states.length + 1];
+            withOuter[0] = outer;
+            withState[0] = state;
+            System.arraycopy(objects, 0, withOuter, 1, objects.length);
+            System.arraycopy(states, 0, withState, 1, states.length);
+            return new Ancestors(withOuter, withState);
+        }
+    }
+
+    /**
+     * A range of elements of a large container, walked by its own traversal.
+     * It is a fork/join task, which makes it serializable, but it is never serialized: it only lives while the container is walked.
+     */
+    @SuppressWarnings("serial")
+    private final class Chunk extends RecursiveAction {
+        private final @Nullable Object[] elements;
+        private final boolean entries;
+        private final int from;
+        private final int to;
+        private final NullPath path;
+        private final @Nullable Class<?> leafKeyType;
+        private final @Nullable Class<?> leafElementType;
+        /** The state of the elements in the scope, if any. */
+        private final long state;
+        private final IdentitySet visited = new IdentitySet();
+        private final List<NullPath> nullPaths = new ArrayList<>();
+        /** Per null, the tracked objects it was found in. */
+        private final List<Ancestors> ancestors = new ArrayList<>();
+        private final Traversal traversal;
+
+        Chunk(@Nullable Object[] elements, boolean entries, int from, int to, NullPath path, @Nullable Property property, Limits limits,
+              @Nullable AtomicLong sharedNodes, long state) {
+            this.elements = elements;
+            this.entries = entries;
+            this.from = from;
+            this.to = to;
+            this.path = path;
+            this.leafKeyType = property != null ? property.leafKeyType() : null;
+            this.leafElementType = property != null ? property.leafElementType() : null;
+            this.state = state;
+            // the container is at depth baseDepth + top + 1, its elements are one level deeper
+            this.traversal = new Traversal(visited, cache, pool, parallelThreshold, hiddenClasses, Traversal.this, baseDepth + top + 2);
+            traversal.chunk = this;
+            traversal.mode = mode;
+            traversal.limits = limits;
+            traversal.deadline = deadline;
+            traversal.sharedNodes = sharedNodes;
+            traversal.checkedNodes = sharedNodes != null ? NODE_BATCH : Long.MAX_VALUE;
+            traversal.scope = scope;
+            traversal.uninitialized = uninitialized;
+        }
+
+        void add(NullPath path, Ancestors ancestors) {
+            nullPaths.add(path);
+            this.ancestors.add(ancestors);
+        }
+
+        @Override
+        protected void compute() {
+            try {
+                walk();
+            } catch (Stop stop) {
+                traversal.unwind();
+            } finally {
+                AtomicLong shared = traversal.sharedNodes;
+                if (shared != null) {
+                    shared.addAndGet(traversal.nodes - traversal.countedNodes);
+                }
+            }
+        }
+
+        private void walk() {
+            for (int i = from; i < to; i++) {
+                if (entries) {
+                    Map.Entry<?, ?> entry = (Map.Entry<?, ?>) Objects.requireNonNull(elements[i]);
+                    walk(entry.getKey(), leafKeyType, path.mapKey(entry.getKey()));
+                    walk(entry.getValue(), leafElementType, path.key(entry.getKey()));
+                } else {
+                    walk(elements[i], leafElementType, path.index(i));
+                }
+            }
+        }
+
+        private void walk(@Nullable Object child, @Nullable Class<?> leafType, NullPath childPath) {
+            if (child == null) {
+                if (reports(state)) {
+                    traversal.report(childPath);
+                }
+                return;
+            }
+            ClassPlan plan = walkablePlan(child, leafType);
+            if (plan != null && walks(state)) {
+                traversal.visit(child, plan, childPath, null, state);
+                traversal.drain();
+            }
+        }
+    }
+
+    /**
+     * Lets a custom validator report the children of the object, which are then walked like any other children.
+     */
+    private void visitCustom(TypeValidator validator, Object obj, @Nullable NullPath path, long state, @Nullable Object tracked) {
+        Frame frame = push(Frame.CHILDREN, path, state);
+        frame.tracked = tracked;
+        Frame previous = collecting;
+        collecting = frame;
+        try {
+            validator.validate(obj, path(top), visited, customSink, childCollector);
+        } finally {
+            collecting = previous;
+        }
+    }
+
+    private void collectChild(@Nullable Object child, NullPath path) {
+        Frame frame = collecting;
+        if (frame == null) {
+            throw new IllegalStateException("Children can only be validated while the custom validator is running, at " + path);
+        }
+        if (frame.length == 0 && (child == null || !ClassPlan.of(child.getClass(), hiddenClasses).walkable())) {
+            // no child before it waits to be walked, so a null is reported in order right away,
+            // and a walk that stops at it unwinds the custom validator instead of letting it pass the rest
+            if (child == null) {
+                visit(null, path, path == frame.path ? frame.state : elementState(frame.state));
+            }
+            return;
+        }
+        frame.addChild(child, path);
+    }
+
+    private void pushProperties(Object obj, @Nullable NullPath path, ClassPlan plan, long state, @Nullable Object tracked) {
+        List<Property> properties = plan.properties();
+        Frame frame = push(Frame.PROPERTIES, path, state);
+        frame.tracked = tracked;
+        frame.properties = properties;
+        frame.length = properties.size();
+        // a scoped walk skips part of the record, so it doesn't know the whole record is null-free
+        if (cache != null && plan.immutable() && scope == null) {
+            frame.validated = obj;
+            frame.reportedNullsAtPush = reportedNulls;
+            frame.unverifiedAtPush = unverified;
+        }
+        Nodes.readProperties(obj, plan, frame.values(properties.size()), topPath);
+    }
+
+    /**
+     * Visits children of the frame until one of them pushes a new frame or the frame is exhausted.
+     *
+     * @return false when all children of the frame have been visited
+     */
+    private boolean advance(Frame frame) {
+        int depth = top;
+        switch (frame.kind) {
+            case Frame.PROPERTIES -> {
+                @Nullable Object[] values = frame.values;
+                List<Property> properties = frame.properties;
+                while (frame.index < frame.length) {
+                    int i = frame.index++;
+                    Object value = values[i];
+                    long state = scope != null ? scope.property(frame.state, properties.get(i).name()) : 0;
+                    if (value == null) {
+                        if (reports(state)) {
+                            report(childPath(depth));
+                        }
+                        continue;
+                    }
+                    ClassPlan plan = walkablePlan(value, null);
+                    if (plan != null && walks(state)) {
+                        visit(value, plan, null, properties.get(i), state);
+                        if (top != depth) {
+                            return true;
+                        }
+                    }
+                }
+            }
+            case Frame.ARRAY -> {
+                @Nullable Object[] array = frame.array;
+                while (frame.index < frame.length) {
+                    if (visitElement(array[frame.index++], frame) && top != depth) {
+                        return true;
+                    }
+                }
+            }
+            case Frame.LIST -> {
+                List<?> list = frame.list;
+                while (frame.index < frame.length) {
+                    if (visitElement(list.get(frame.index++), frame) && top != depth) {
+                        return true;
+                    }
+                }
+            }
+            case Frame.ITERATOR -> {
+                Iterator<?> iterator = frame.iterator;
+                while (iterator.hasNext()) {
+                    Object item = iterator.next();
+                    frame.index++;
+                    if (visitElement(item, frame) && top != depth) {
+                        return true;
+                    }
+                }
+            }
+            case Frame.MAP -> {
+                while (true) {
+                    Map.Entry<?, ?> entry = frame.entry;
+                    if (entry != null && !frame.atValue) {
+                        // the key of this entry has been visited, now its value
+                        frame.atValue = true;
+                        Object value = entry.getValue();
+                        long state = elementState(frame.state);
+                        if (value == null) {
+                            if (reports(state)) {
+                                report(childPath(depth));
+                            }
+                        } else {
+                            ClassPlan plan = walkablePlan(value, frame.leafElementType);
+                            if (plan != null && walks(state)) {
+                                visit(value, plan, null, null, state);
+                                if (top != depth) {
+                                    return true;
+                                }
+                            }
+                        }
+                    }
+                    if (!frame.iterator.hasNext()) {
+                        break;
+                    }
+                    entry = (Map.Entry<?, ?>) frame.iterator.next();
+                    frame.entry = entry;
+                    frame.atValue = false;
+                    Object key = entry.getKey();
+                    long state = elementState(frame.state);
+                    if (key == null) {
+                        if (reports(state)) {
+                            report(childPath(depth));
+                        }
+                    } else {
+                        ClassPlan plan = walkablePlan(key, frame.leafKeyType);
+                        if (plan != null && walks(state)) {
+                            visit(key, plan, null, null, state);
+                            if (top != depth) {
+                                return true;
+                            }
+                        }
+                    }
+                }
+            }
+            case Frame.CHILDREN -> {
+                while (frame.index < frame.length) {
+                    int i = frame.index++;
+                    // a custom validator passes the path of the object itself for its value, e.g. of an option
+                    NullPath childPath = frame.childPaths[i];
+                    visit(frame.values[i], childPath, childPath == frame.path ? frame.state : elementState(frame.state));
+                    if (top != depth) {
+                        return true;
+                    }
+                }
+            }
+            default -> throw new IllegalStateException("Unknown frame kind " + frame.kind);
+        }
+        return false;
+    }
+
+    /**
+     * Visits the element the frame on top of the stack, walking an array, list or collection, is positioned at.
+     *
+     * @return whether the element was visited, and might have pushed a frame
+     */
+    private boolean visitElement(@Nullable Object element, Frame frame) {
+        long state = elementState(frame.state);
+        if (element == null) {
+            if (reports(state)) {
+                report(childPath(top));
+            }
+            return false;
+        }
+        ClassPlan plan = walkablePlan(element, frame.leafElementType);
+        if (plan == null || !walks(state)) {
+            return false;
+        }
+        visit(element, plan, null, null, state);
+        return true;
+    }
+
+    /**
+     * The state in the scope of an element, key or value of a node in the given state.
+     * Only meaningful when there is a scope, as is the state itself.
+     */
+    private long elementState(long state) {
+        return scope != null ? scope.element(state) : 0;
+    }
+
+    /**
+     * Whether a null in the given state is reported: always, unless it's out of scope.
+     */
+    private boolean reports(long state) {
+        return scope == null || scope.reports(state);
+    }
+
+    /**
+     * Whether a node in the given state is walked: always, unless none of its children can be in scope.
+     */
+    private boolean walks(long state) {
+        return scope == null || scope.walks(state);
+    }
+
+    private Frame push(int kind, @Nullable NullPath path, long state) {
+        if (++top == stack.length) {
+            stack = Arrays.copyOf(stack, stack.length * 2);
+        }
+        Frame frame = stack[top];
+        if (frame == null) {
+            frame = new Frame();
+            stack[top] = frame;
+        }
+        frame.kind = kind;
+        frame.path = path;
+        frame.state = state;
+        frame.index = 0;
+        frame.length = 0;
+        return frame;
+    }
+
+    private void pop() {
+        stack[top--].clear();
+    }
+
+    /**
+     * The path of the node walked by the frame at the given depth.
+     * Frames pushed without a path get theirs from the position of the frame below them, it's only created when needed.
+     */
+    private NullPath path(int depth) {
+        int known = depth;
+        while (stack[known].path == null) {
+            // the bottom frame always has a path
+            known--;
+        }
+        NullPath path = Objects.requireNonNull(stack[known].path);
+        for (int i = known + 1; i <= depth; i++) {
+            path = stack[i - 1].childPath(path);
+            stack[i].path = path;
+        }
+        return path;
+    }
+
+    /**
+     * The path of the child the frame at the given depth is positioned at.
+     */
+    private NullPath childPath(int depth) {
+        return stack[depth].childPath(path(depth));
+    }
+
+    /**
+     * The given path, or if there is none, the path of the child the frame on top of the stack is positioned at.
+     */
+    private NullPath pathOf(@Nullable NullPath path) {
+        return path != null ? path : childPath(top);
+    }
+
+    /**
+     * The plan of a child that isn't null, if it has to be walked.
+     * Looking this up before creating the path of the child avoids creating paths for leaves,
+     * and the plan is then passed on, so every child is looked up only once.
+     *
+     * @param leafType the declared type of the child, if instances of exactly that type are known to not need walking
+     * @return the plan, or null if the child doesn't have to be walked
+     */
+    private @Nullable ClassPlan walkablePlan(Object child, @Nullable Class<?> leafType) {
+        Class<?> clazz = child.getClass();
+        if (clazz == leafType) {
+            return null;
+        }
+        ClassPlan plan = ClassPlan.of(clazz, hiddenClasses);
+        return plan.walkable() ? plan : null;
+    }
+
+    /**
+     * Thrown to unwind the traversal at once when one of its limits is reached, or the sink is done.
+     * It is a preallocated singleton without a stack trace, so stopping is cheap.
+     */
+    private static final class Stop extends RuntimeException {
+        @Serial
+        private static final long serialVersionUID = 1L;
+
+        private static final Stop INSTANCE = new Stop();
+
+        private Stop() {
+            super("traversal stopped", null, false, false);
+        }
+    }
+
+    /**
+     * The state of walking the children of a single node. Frames are reused for different nodes as the stack grows and shrinks.
+     */
+    private static final class Frame {
+        static final int PROPERTIES = 0;
+        static final int ARRAY = 1;
+        static final int ITERATOR = 2;
+        static final int MAP = 3;
+        static final int CHILDREN = 4;
+        static final int LIST = 5;
+
+        private static final @Nullable Object[] NO_VALUES = new Object[0];
+        private static final NullPath[] NO_PATHS = new NullPath[0];
+
+        int kind;
+        /** The path of the node, null until it's needed when the frame was pushed for the child of the frame below it. */
+        @Nullable NullPath path;
+        /** The state of the node in the scope, if any. */
+        long state;
+        /** The position of the next child, the current child is the one before it. */
+        int index;
+        int length;
+
+        /** Property values read from a record or pojo, or the children passed back by a custom validator. */
+        @Nullable Object[] values = NO_VALUES;
+        List<Property> properties = List.of();
+        NullPath[] childPaths = NO_PATHS;
+        @Nullable Object[] array = NO_VALUES;
+        List<?> list = List.of();
+        Iterator<?> iterator;
+        Map.@Nullable Entry<?, ?> entry;
+        /** Whether the value of the entry is the current child, rather than its key. */
+        boolean atValue;
+        /** Declared types of the keys and elements of the container that don't need to be visited, see {@link Property#leafElementType()}. */
+        @Nullable Class<?> leafKeyType;
+        @Nullable Class<?> leafElementType;
+        /** The immutable record walked by this frame, to be cached when no nulls are found in it. */
+        @Nullable Object validated;
+        /** In the traversal of a chunk, the object walked by this frame if it is tracked in the visited set. */
+        @Nullable Object tracked;
+        int reportedNullsAtPush;
+        long unverifiedAtPush;
+
+        /**
+         * The path of the child this frame is positioned at.
+         *
+         * @param path the path of this frame
+         */
+        NullPath childPath(NullPath path) {
+            return switch (kind) {
+                case PROPERTIES -> path.property(properties.get(index - 1).name());
+                case ARRAY, LIST, ITERATOR -> path.index(index - 1);
+                case MAP -> {
+                    Map.Entry<?, ?> current = Objects.requireNonNull(entry);
+                    yield atValue ? path.key(current.getKey()) : path.mapKey(current.getKey());
+                }
+                case CHILDREN -> childPaths[index - 1];
+                default -> throw new IllegalStateException("Unknown frame kind " + kind);
+            };
+        }
+
+        @Nullable Object[] values(int size) {
+            if (values.length < size) {
+                values = new Object[size];
+            }
+            return values;
+        }
+
+        void addChild(@Nullable Object child, NullPath childPath) {
+            if (length == values.length) {
+                values = Arrays.copyOf(values, Math.max(8, length * 2));
+            }
+            if (length >= childPaths.length) {
+                childPaths = Arrays.copyOf(childPaths, values.length);
+            }
+            values[length] = child;
+            childPaths[length] = childPath;
+            length++;
+        }
+
+        /**
+         * Drops all references to the walked node, so they can be garbage collected while the frame waits to be reused.
+         */
+        void clear() {
+            if (values.length > MAX_RETAINED_CHILDREN) {
+                // e.g. the children of a huge collection a custom validator walked, a pooled frame would keep them for good
+                values = NO_VALUES;
+                childPaths = NO_PATHS;
+            } else {
+                Arrays.fill(values, 0, Math.min(length, values.length), null);
+                if (kind == CHILDREN) {
+                    Arrays.fill(childPaths, 0, length, null);
+                }
+            }
+            properties = List.of();
+            path = null;
+            array = NO_VALUES;
+            list = List.of();
+            iterator = null;
+            entry = null;
+            atValue = false;
+            leafKeyType = null;
+            leafElementType = null;
+            validated = null;
+            tracked = null;
+        }
+    }
+}
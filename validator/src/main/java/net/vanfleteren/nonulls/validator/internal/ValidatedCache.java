@@ -0,0 +1,54 @@
+package net.vanfleteren.nonulls.validator.internal;
+
+import java.lang.ref.WeakReference;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * A bounded cache of immutable objects known to contain no nulls, compared by identity.
+ * <p>
+ * Objects are only referenced weakly, so the cache never keeps them alive. The cache is direct-mapped: every object
+ * has a single slot determined by its identity hash code, and adding an object evicts whatever was in its slot.
+ * This keeps lookups lock-free and O(1), at the cost of an occasional miss.
+ * <p>
+ * Only immutable objects may be added, otherwise a null could be introduced after they were found to contain none.
+ * Thread-safe.
+ */
+public final class ValidatedCache {
+
+    public static final int MAX_SIZE = 1 << 30;
+
+    private final AtomicReferenceArray<WeakReference<Object>> slots;
+    private final int mask;
+
+    /**
+     * @param maxSize the maximum number of objects in the cache, rounded up to a power of two
+     */
+    public ValidatedCache(int maxSize) {
+        if (maxSize < 1 || maxSize > MAX_SIZE) {
+            throw new IllegalArgumentException("maxSize should be between 1 and " + MAX_SIZE + ", but was " + maxSize);
+        }
+        int capacity = 1;
+        while (capacity < maxSize) {
+            capacity <<= 1;
+        }
+        this.slots = new AtomicReferenceArray<>(capacity);
+        this.mask = capacity - 1;
+    }
+
+    /**
+     * Whether this exact object (by identity) was added and is still in the cache.
+     */
+    public boolean contains(Object obj) {
+        WeakReference<Object> slot = slots.get(indexFor(obj));
+        return slot != null && slot.get() == obj;
+    }
+
+    public void add(Object obj) {
+        slots.set(indexFor(obj), new WeakReference<>(obj));
+    }
+
+    private int indexFor(Object obj) {
+        int hash = System.identityHashCode(obj) * 0x9E3779B9;
+        return (hash ^ (hash >>> 16)) & mask;
+    }
+}
@@ -0,0 +1,3 @@
+/** Internal implementation details for the NoNulls validator. */
+@org.jspecify.annotations.NullMarked
+package net.vanfleteren.nonulls.validator.internal;
@@ -0,0 +1,40 @@
+package net.vanfleteren.nonulls.validator.spi;
+
+import org.jspecify.annotations.Nullable;
+
+import java.util.List;
+
+/**
+ * Reflection-free access to the properties of a single record or pojo type.
+ * <p>
+ * Implementations are generated at compile time by the {@code validator-processor} annotation processor
+ * for types annotated with {@link net.vanfleteren.nonulls.validator.GenerateNullValidator}, and are discovered
+ * by naming convention: {@code com.example.Order} is read by {@code com.example.OrderNullValidator}.
+ * They need a public no-arg constructor.
+ *
+ * @param <T> the type that is validated
+ */
+public interface GeneratedNullValidator<T> {
+
+    /**
+     * Suffix appended to the (underscore-joined) simple name of a type to get the name of its generated validator.
+     */
+    String SUFFIX = "NullValidator";
+
+    /**
+     * The type validated by this validator.
+     */
+    Class<T> type();
+
+    /**
+     * The names of the properties that can hold a null, in validation order:
+     * record components in declaration order, or fields in declaration order starting from the type itself up to its superclasses.
+     * Properties of a primitive type are left out.
+     */
+    List<String> propertyNames();
+
+    /**
+     * Reads the properties named by {@link #propertyNames()} from the given object into {@code values}.
+     */
+    void readProperties(T obj, @Nullable Object[] values);
+}
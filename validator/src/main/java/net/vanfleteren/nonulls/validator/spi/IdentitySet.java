@@ -0,0 +1,123 @@
+package net.vanfleteren.nonulls.validator.spi;
+
+import java.util.Arrays;
+
+/**
+ * A set of objects compared by identity, used to keep track of the objects already visited during validation.
+ * <p>
+ * Unlike a {@code Set<Integer>} of identity hash codes, distinct objects with colliding identity hash codes are
+ * never confused with each other. Objects are stored directly in an open-addressing table, so adding an object
+ * doesn't allocate a box or a node. The set can be {@link #clear() cleared} and reused for another validation.
+ * <p>
+ * Not thread-safe.
+ */
+public final class IdentitySet {
+
+    private static final int DEFAULT_CAPACITY = 64;
+    /** Tables larger than this are released on {@link #clear()} instead of being wiped for reuse. */
+    private static final int MAX_RETAINED_CAPACITY = 1 << 16;
+
+    private Object[] table;
+    private int size;
+
+    public IdentitySet() {
+        this.table = new Object[DEFAULT_CAPACITY];
+    }
+
+    /**
+     * Adds the object to the set.
+     *
+     * @return true if the object was added, false if it was already present
+     */
+    public boolean add(Object obj) {
+        Object[] tab = table;
+        int mask = tab.length - 1;
+        int i = indexFor(obj, mask);
+        Object current;
+        while ((current = tab[i]) != null) {
+            if (current == obj) {
+                return false;
+            }
+            i = (i + 1) & mask;
+        }
+        tab[i] = obj;
+        // keep the table at most half full, so probe sequences stay short
+        if (++size > tab.length >>> 1) {
+            resize();
+        }
+        return true;
+    }
+
+    /**
+     * Whether this exact object (by identity) is in the set.
+     */
+    public boolean contains(Object obj) {
+        Object[] tab = table;
+        int mask = tab.length - 1;
+        int i = indexFor(obj, mask);
+        Object current;
+        while ((current = tab[i]) != null) {
+            if (current == obj) {
+                return true;
+            }
+            i = (i + 1) & mask;
+        }
+        return false;
+    }
+
+    /**
+     * Adds all objects of the other set to this set.
+     */
+    public void addAll(IdentitySet other) {
+        for (Object obj : other.table) {
+            if (obj != null) {
+                add(obj);
+            }
+        }
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Removes all objects from the set, so it can be reused.
+     */
+    public void clear() {
+        if (size == 0) {
+            return;
+        }
+        if (table.length > MAX_RETAINED_CAPACITY) {
+            table = new Object[DEFAULT_CAPACITY];
+        } else {
+            Arrays.fill(table, null);
+        }
+        size = 0;
+    }
+
+    private void resize() {
+        Object[] old = table;
+        Object[] tab = new Object[old.length << 1];
+        int mask = tab.length - 1;
+        for (Object obj : old) {
+            if (obj != null) {
+                int i = indexFor(obj, mask);
+                while (tab[i] != null) {
+                    i = (i + 1) & mask;
+                }
+                tab[i] = obj;
+            }
+        }
+        table = tab;
+    }
+
+    private static int indexFor(Object obj, int mask) {
+        // spread the identity hash, so consecutive hashes don't end up in one cluster
+        int hash = System.identityHashCode(obj) * 0x9E3779B9;
+        return (hash ^ (hash >>> 16)) & mask;
+    }
+}
@@ -0,0 +1,40 @@
+package net.vanfleteren.nonulls.validator.spi;
+
+import org.jspecify.annotations.Nullable;
+
+/**
+ * SPI for registering types whose state is loaded lazily, like the proxies and lazy collections of an ORM.
+ * <p>
+ * Before walking an instance of such a type, the validator asks the boundary whether it is initialized.
+ * An uninitialized instance is not walked, so validating never loads anything, it is skipped or reported instead,
+ * see {@link net.vanfleteren.nonulls.validator.UninitializedPolicy}.
+ * Registered with a {@link java.util.ServiceLoader}, like {@link TypeValidator}.
+ */
+public interface LazyBoundary {
+    /**
+     * Determines if instances of this class might be uninitialized.
+     *
+     * @param clazz the class to check
+     * @return true if this boundary should be asked about instances of this class
+     */
+    boolean canHandle(Class<?> clazz);
+
+    /**
+     * Whether the state of the object is loaded, so walking it doesn't load anything.
+     * This must not initialize the object itself.
+     *
+     * @param obj an instance of a class this boundary can handle
+     */
+    boolean isInitialized(Object obj);
+
+    /**
+     * The object holding the state of an initialized instance, which is walked instead of it,
+     * e.g. the entity behind a proxy. Defaults to the object itself.
+     * Null when the instance refers to nothing, which is reported like a null at its path.
+     *
+     * @param obj an initialized instance of a class this boundary can handle
+     */
+    default @Nullable Object unwrap(Object obj) {
+        return obj;
+    }
+}
@@ -0,0 +1,98 @@
+package net.vanfleteren.nonulls.validator.spi;
+
+import net.vanfleteren.nonulls.validator.NullPath;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Receives the path of every null found during a validation.
+ * <p>
+ * Paths are passed as {@link NullPath}s, so a sink that doesn't need them as strings never renders them.
+ * A sink can end the validation early by returning true from {@link #isDone()}, e.g. once it has seen enough nulls.
+ * Any lambda taking a {@link NullPath} is a sink that receives every null, e.g. to stream them to a log.
+ */
+@FunctionalInterface
+public interface NullSink {
+
+    /**
+     * Called with the path of every null found, in traversal order.
+     */
+    void accept(NullPath path);
+
+    /**
+     * Whether the sink doesn't want any more nulls, checked after every null.
+     * Once it returns true, the validation stops.
+     */
+    default boolean isDone() {
+        return false;
+    }
+
+    /**
+     * A sink that only counts the nulls, without keeping their paths.
+     */
+    static Counting counting() {
+        return new Counting();
+    }
+
+    /**
+     * A sink that keeps the paths of the first nulls found, and then stops the validation.
+     *
+     * @param max the number of paths to keep
+     */
+    static First first(int max) {
+        return new First(max);
+    }
+
+    /**
+     * A sink that counts the nulls.
+     */
+    final class Counting implements NullSink {
+        private long count;
+
+        private Counting() {
+        }
+
+        @Override
+        public void accept(NullPath path) {
+            count++;
+        }
+
+        public long count() {
+            return count;
+        }
+    }
+
+    /**
+     * A sink that keeps the paths of the first nulls found.
+     */
+    final class First implements NullSink {
+        private final int max;
+        private final List<NullPath> paths = new ArrayList<>();
+
+        private First(int max) {
+            if (max < 1) {
+                throw new IllegalArgumentException("max should be at least 1, but was " + max);
+            }
+            this.max = max;
+        }
+
+        @Override
+        public void accept(NullPath path) {
+            paths.add(path);
+        }
+
+        @Override
+        public boolean isDone() {
+            return paths.size() >= max;
+        }
+
+        /**
+         * The paths of the first nulls found, in traversal order.
+         */
+        public List<NullPath> paths() {
+            return Collections.unmodifiableList(paths);
+        }
+    }
+}
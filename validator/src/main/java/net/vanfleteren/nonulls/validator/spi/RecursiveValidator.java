@@ -1,15 +1,21 @@
 package net.vanfleteren.nonulls.validator.spi;
 
+import net.vanfleteren.nonulls.validator.NullPath;
 import org.jspecify.annotations.Nullable;
 
-import java.util.List;
-import java.util.Set;
-
 /**
  * Callback interface that allows TypeValidator implementations
  * to recursively validate nested objects.
+ * <p>
+ * Nested objects are not validated immediately: they are validated, in the order they were passed,
+ * after {@link TypeValidator#validate} returns. This keeps the traversal iterative, so deep graphs
+ * don't overflow the stack. The callback can only be used while {@link TypeValidator#validate} is running.
+ * <p>
+ * Nulls and leaves, like strings, passed before any object that has to be walked are checked right away.
+ * When the validation stops at such a null, e.g. in {@code hasNoNulls}, the callback throws to end it,
+ * so implementations shouldn't catch what it throws.
  */
 @FunctionalInterface
 public interface RecursiveValidator {
-    void validate(@Nullable Object obj, String path, Set<Integer> visited, List<String> nullPaths);
+    void validate(@Nullable Object obj, NullPath path, IdentitySet visited, NullSink nullSink);
 }
\ No newline at end of file
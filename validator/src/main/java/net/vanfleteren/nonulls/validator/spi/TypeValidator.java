@@ -1,7 +1,6 @@
 package net.vanfleteren.nonulls.validator.spi;
 
-import java.util.List;
-import java.util.Set;
+import net.vanfleteren.nonulls.validator.NullPath;
 
 /**
  * SPI for registering custom type validators.
@@ -21,11 +20,11 @@ public interface TypeValidator {
      * Validates an object of a supported type, collecting any null paths found.
      *
      * @param obj the object to validate (never null - already checked by caller)
-     * @param path the current path in the object graph
-     * @param visited set of already-visited object identity hashes (for cycle detection)
-     * @param nullPaths list to collect paths where nulls are found
+     * @param path the current path in the object graph, child paths are created with e.g. {@link NullPath#index(int)}
+     * @param visited objects already visited (for cycle detection)
+     * @param nullSink receives the paths where nulls are found, nulls passed to the recursive validator are reported to it as well
      * @param recursiveValidator callback to recursively validate nested objects
      */
-    void validate(Object obj, String path, Set<Integer> visited,
-                  List<String> nullPaths, RecursiveValidator recursiveValidator);
+    void validate(Object obj, NullPath path, IdentitySet visited,
+                  NullSink nullSink, RecursiveValidator recursiveValidator);
 }
\ No newline at end of file
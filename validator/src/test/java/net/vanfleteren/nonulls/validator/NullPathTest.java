@@ -0,0 +1,101 @@
+package net.vanfleteren.nonulls.validator;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class NullPathTest {
+
+    @Test
+    void root_rendersAsRoot() {
+        assertEquals("root", NullPath.root().toString());
+    }
+
+    @Test
+    void segments_renderLikeTheValidatorPaths() {
+        NullPath lines = NullPath.root().property("orders").index(17).property("lines");
+
+        assertEquals("root.orders[17].lines[3].sku", lines.index(3).property("sku").toString());
+        assertEquals("root.orders[17].lines[k]", lines.key("k").toString());
+        assertEquals("root.orders[17].lines.key[null]", lines.mapKey(null).toString());
+    }
+
+    @Test
+    void keys_areOnlyRenderedWhenThePathIsRendered() {
+        StringBuilder key = new StringBuilder("before");
+        NullPath path = NullPath.root().key(key);
+        key.replace(0, key.length(), "after");
+
+        assertEquals("root[after]", path.toString());
+    }
+
+    @Test
+    void reportedPaths_holdTheirKeysAsRenderedWhenTheNullWasFound() {
+        StringBuilder key = new StringBuilder("before");
+        Map<Object, String> map = new HashMap<>();
+        map.put(key, null);
+
+        NullReport report = NullValidator.validate(map);
+        key.replace(0, key.length(), "after");
+
+        assertEquals(List.of("root[before]"), report.nullPaths());
+        assertEquals(NullPath.root().key("before"), report.paths().getFirst());
+    }
+
+    @Test
+    void keysThatFailToRender_renderLikeAnObject() {
+        Object key = new Object() {
+            @Override
+            public String toString() {
+                throw new IllegalStateException("no rendering");
+            }
+        };
+        Map<Object, String> map = new HashMap<>();
+        map.put(key, null);
+
+        NullsFoundException e = assertThrows(NullsFoundException.class, () -> NullValidator.assertNoNulls(map));
+
+        assertEquals("Null value(s) found at: root[" + key.getClass().getName() + "@" + Integer.toHexString(System.identityHashCode(key)) + "]",
+                e.getMessage());
+    }
+
+    @Test
+    void paths_withTheSameSegments_areEqual() {
+        NullPath path = NullPath.root().property("lines").index(3).key("k");
+
+        assertEquals(NullPath.root().property("lines").index(3).key("k"), path);
+        assertEquals(NullPath.root().property("lines").index(3).key("k").hashCode(), path.hashCode());
+        assertNotEquals(NullPath.root().property("lines").index(4).key("k"), path);
+        assertNotEquals(NullPath.root().property("lines").index(3).mapKey("k"), path);
+        assertNotEquals(NullPath.root().index(3).key("k"), path);
+        assertEquals(NullPath.root().key("1"), NullPath.root().key(1));
+        assertEquals(NullPath.root().key("1").hashCode(), NullPath.root().key(1).hashCode());
+    }
+
+    @Test
+    void reportedPaths_shareTheirPrefix() {
+        record Line(String sku, String note) {}
+
+        NullReport report = NullValidator.validate(List.of(new Line(null, null)));
+
+        assertEquals(List.of("root[0].sku", "root[0].note"), report.nullPaths());
+        assertEquals(NullPath.root().index(0).property("sku"), report.paths().get(0));
+        assertSame(report.paths().get(0).parent(), report.paths().get(1).parent());
+    }
+
+    @Test
+    void wildcard_replacesIndexesAndKeys_andSharesThePrefix() {
+        NullPath orders = NullPath.root().property("orders");
+        NullPath path = orders.index(17).property("lines").key("k").property("sku");
+
+        assertEquals("root.orders[*].lines[*].sku", path.wildcard().toString());
+        assertEquals("root.orders.key[*]", orders.mapKey("k").wildcard().toString());
+        assertEquals(path.wildcard(), orders.index(3).property("lines").key("other").property("sku").wildcard());
+        assertSame(orders, orders.wildcard());
+        assertSame(orders, orders.index(1).wildcard().parent());
+    }
+}
@@ -0,0 +1,267 @@
+package net.vanfleteren.nonulls.validator;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class NullSanitizerTest {
+
+    record Line(String sku, List<String> tags) {}
+
+    record Point(int x, List<String> labels, long y) {}
+
+    record Order(String id, List<Line> lines, Map<String, String> attributes, Optional<String> note, String[] codes) {}
+
+    record Positive(String name, List<Integer> values) {
+        Positive {
+            if (values != null && values.isEmpty()) {
+                throw new IllegalArgumentException("values can't be empty");
+            }
+        }
+    }
+
+    record Chain(Chain next, List<String> tags) {}
+
+    record Failing(String name) {
+        @Override
+        public String name() {
+            throw new IllegalStateException("no name");
+        }
+    }
+
+    static class Customer {
+        String name;
+        List<String> emails;
+        Map<String, Integer> scores = new HashMap<>();
+        Collection<String> labels;
+        final List<Line> lines = new ArrayList<>();
+    }
+
+    private static List<String> rendered(List<NullPath> paths) {
+        return paths.stream().map(NullPath::toString).toList();
+    }
+
+    @Test
+    void record_isRebuiltWithRepairedComponents() {
+        Map<String, String> attributes = new HashMap<>();
+        attributes.put("color", null);
+        Order order = new Order(null, Arrays.asList(new Line("a", null), null), attributes, null, new String[]{"x", null});
+
+        NullSanitizer.Sanitized<Order> sanitized = NullValidator.sanitize(order);
+
+        Order repaired = sanitized.value();
+        assertNotSame(order, repaired);
+        assertEquals(List.of(new Line("a", List.of())), repaired.lines());
+        assertEquals(Map.of(), repaired.attributes());
+        assertEquals(Optional.empty(), repaired.note());
+        assertArrayEquals(new String[]{"x"}, repaired.codes());
+        assertEquals(List.of("root.lines[0].tags", "root.lines[1]", "root.attributes[color]", "root.note", "root.codes[1]"),
+                rendered(sanitized.repaired()));
+        assertEquals(List.of("root.id"), sanitized.unrepaired().nullPaths());
+        assertFalse(sanitized.isClean());
+        assertThrows(NullsFoundException.class, sanitized::orElseThrow);
+    }
+
+    @Test
+    void rebuiltRecord_keepsItsPrimitiveComponents() {
+        NullSanitizer.Sanitized<Point> sanitized = NullValidator.sanitize(new Point(1, null, 2));
+
+        assertEquals(new Point(1, List.of(), 2), sanitized.value());
+        assertEquals(List.of("root.labels"), rendered(sanitized.repaired()));
+    }
+
+    @Test
+    void mutableObjects_areRepairedInPlace() {
+        Customer customer = new Customer();
+        customer.name = "name";
+        customer.scores.put("a", null);
+        customer.scores.put("b", 1);
+        customer.lines.add(new Line(null, new ArrayList<>(Arrays.asList("t", null))));
+        List<String> tags = customer.lines.getFirst().tags();
+
+        NullSanitizer.Sanitized<Customer> sanitized = NullValidator.sanitize(customer);
+
+        assertSame(customer, sanitized.value());
+        assertEquals(List.of(), customer.emails);
+        assertInstanceOf(ArrayList.class, customer.labels);
+        assertEquals(Map.of("b", 1), customer.scores);
+        assertSame(tags, customer.lines.getFirst().tags());
+        assertEquals(List.of("t"), tags);
+        assertEquals(List.of("root.emails", "root.scores[a]", "root.labels", "root.lines[0].tags[1]"), rendered(sanitized.repaired()));
+        assertEquals(List.of("root.lines[0].sku"), sanitized.unrepaired().nullPaths());
+    }
+
+    @Test
+    void repairedRecords_replaceTheOriginalsInMutableContainers() {
+        List<Line> lines = new ArrayList<>(List.of(new Line("a", List.of())));
+        lines.add(new Line("b", null));
+        Set<Line> set = new HashSet<>(lines);
+
+        assertTrue(NullValidator.sanitize(lines).isClean());
+        assertEquals(List.of(new Line("a", List.of()), new Line("b", List.of())), lines);
+
+        assertTrue(NullValidator.sanitize(set).isClean());
+        assertEquals(Set.of(new Line("a", List.of()), new Line("b", List.of())), set);
+    }
+
+    @Test
+    void repairedElements_keepTheirPosition() {
+        List<Line> lines = new LinkedList<>(List.of(new Line("first", List.of()), new Line("second", List.of()), new Line("third", List.of())));
+        lines.set(0, new Line("first", null));
+        Set<Line> set = new LinkedHashSet<>(lines);
+
+        assertTrue(NullValidator.sanitize(lines).isClean());
+        assertEquals(List.of("first", "second", "third"), lines.stream().map(Line::sku).toList());
+        assertEquals(new Line("first", List.of()), lines.getFirst());
+
+        assertTrue(NullValidator.sanitize(set).isClean());
+        assertEquals(List.of("first", "second", "third"), set.stream().map(Line::sku).toList());
+    }
+
+    @Test
+    void repairedKeys_keepTheirPosition() {
+        Map<Line, String> map = new LinkedHashMap<>();
+        map.put(new Line("first", null), "1");
+        map.put(new Line("second", List.of()), "2");
+        map.put(new Line("third", List.of()), null);
+        map.put(new Line("fourth", List.of()), "4");
+
+        NullSanitizer.Sanitized<Map<Line, String>> sanitized = NullValidator.sanitize(map);
+
+        assertTrue(sanitized.isClean());
+        assertEquals(List.of("first", "second", "fourth"), map.keySet().stream().map(Line::sku).toList());
+        assertEquals(List.of("1", "2", "4"), List.copyOf(map.values()));
+    }
+
+    @Test
+    void unmodifiableContainers_areReplacedByACopy() {
+        Customer customer = new Customer();
+        customer.name = "name";
+        customer.emails = Collections.unmodifiableList(Arrays.asList("a", null));
+        customer.labels = Collections.unmodifiableSet(new LinkedHashSet<>(Arrays.asList("x", null)));
+        TreeMap<String, Integer> scores = new TreeMap<>(Map.of("b", 2, "a", 1));
+        scores.put("c", null);
+        customer.scores = Collections.unmodifiableSortedMap(scores);
+
+        NullSanitizer.Sanitized<Customer> sanitized = NullValidator.sanitize(customer);
+
+        assertTrue(sanitized.isClean());
+        assertEquals(List.of("a"), customer.emails);
+        assertEquals(Set.of("x"), customer.labels);
+        assertInstanceOf(TreeMap.class, customer.scores);
+        assertEquals(Map.of("a", 1, "b", 2), customer.scores);
+        assertEquals(List.of("root.emails[1]", "root.scores[c]", "root.labels[1]"), rendered(sanitized.repaired()));
+    }
+
+    @Test
+    void aRootThatCantBeChanged_isReported() {
+        List<String> root = Collections.unmodifiableList(Arrays.asList("a", null));
+
+        NullSanitizer.Sanitized<List<String>> sanitized = NullValidator.sanitize(root);
+
+        assertSame(root, sanitized.value());
+        assertEquals(List.of(), sanitized.repaired());
+        assertEquals(List.of("root[1]"), sanitized.unrepaired().nullPaths());
+    }
+
+    @Test
+    void aRecordThatRejectsTheRepair_keepsItsNulls() {
+        Positive positive = new Positive(null, null);
+
+        NullSanitizer.Sanitized<Positive> sanitized = NullValidator.sanitize(positive);
+
+        assertSame(positive, sanitized.value());
+        assertEquals(List.of(), sanitized.repaired());
+        assertEquals(List.of("root.name", "root.values"), sanitized.unrepaired().nullPaths());
+    }
+
+    @Test
+    void sharedRecords_areRebuiltOnce() {
+        Line shared = new Line("a", null);
+        List<Line> lines = new ArrayList<>(List.of(shared, shared));
+
+        NullSanitizer.Sanitized<List<Line>> sanitized = NullValidator.sanitize(lines);
+
+        assertTrue(sanitized.isClean());
+        assertSame(lines.get(0), lines.get(1));
+        assertEquals(List.of("root[0].tags"), rendered(sanitized.repaired()));
+    }
+
+    @Test
+    void disabledRepairs_areReported() {
+        NullSanitizer sanitizer = NullSanitizer.builder()
+                .treatNullCollectionsAsEmpty(false)
+                .treatNullOptionalsAsEmpty(false)
+                .filterNullsInCollections(false)
+                .filterNullValuesInMaps(false)
+                .build();
+        Map<String, String> attributes = new HashMap<>();
+        attributes.put("color", null);
+        Order order = new Order("id", Arrays.asList(new Line("a", null), null), attributes, null, new String[]{"x"});
+
+        NullSanitizer.Sanitized<Order> sanitized = sanitizer.sanitize(order);
+
+        assertSame(order, sanitized.value());
+        assertEquals(List.of(), sanitized.repaired());
+        assertEquals(NullValidator.findNullPaths(order), sanitized.unrepaired().nullPaths());
+    }
+
+    @Test
+    void propertiesThatCantBeRead_failLikeWhenValidating() {
+        List<Failing> root = List.of(new Failing("a"));
+
+        RuntimeException validating = assertThrows(RuntimeException.class, () -> NullValidator.findNullPaths(root));
+        RuntimeException sanitizing = assertThrows(RuntimeException.class, () -> NullValidator.sanitize(root));
+
+        assertEquals(validating.getMessage(), sanitizing.getMessage());
+        assertTrue(sanitizing.getMessage().contains("root[0]"), sanitizing.getMessage());
+    }
+
+    @Test
+    void nullRoot_isReported() {
+        NullSanitizer.Sanitized<Object> sanitized = NullValidator.sanitize(null);
+
+        assertNull(sanitized.value());
+        assertEquals(List.of("root"), sanitized.unrepaired().nullPaths());
+    }
+
+    @Test
+    void deepGraphs_areTruncated() {
+        List<Object> root = new ArrayList<>();
+        List<Object> current = root;
+        for (int i = 0; i < 10; i++) {
+            List<Object> next = new ArrayList<>();
+            current.add(next);
+            current = next;
+        }
+        current.add(null);
+
+        NullSanitizer.Sanitized<List<Object>> sanitized = NullSanitizer.builder().maxDepth(5).build().sanitize(root);
+
+        assertEquals(NullReport.Truncation.MAX_DEPTH, sanitized.unrepaired().truncation());
+        assertFalse(sanitized.isClean());
+        assertTrue(NullValidator.sanitize(root).isClean());
+        assertTrue(NullValidator.hasNoNulls(root));
+    }
+
+    @Test
+    void veryDeepGraphs_dontOverflowTheStack() {
+        int depth = 200_000;
+        Chain chain = new Chain(null, null);
+        for (int i = 0; i < depth; i++) {
+            chain = new Chain(chain, List.of());
+        }
+
+        NullSanitizer.Sanitized<Chain> sanitized = NullSanitizer.builder().maxDepth(depth + 1).build().sanitize(chain);
+
+        assertEquals(1, sanitized.repaired().size());
+        assertEquals(1, sanitized.unrepaired().nullPaths().size());
+        Chain last = sanitized.value();
+        while (last.next() != null) {
+            last = last.next();
+        }
+        assertEquals(List.of(), last.tags());
+    }
+}
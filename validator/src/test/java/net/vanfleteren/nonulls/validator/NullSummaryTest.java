@@ -0,0 +1,60 @@
+package net.vanfleteren.nonulls.validator;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class NullSummaryTest {
+
+    record Item(String name, String sku) {}
+
+    record Batch(String id, List<Item> items, Map<String, String> attributes) {}
+
+    @Test
+    void nullsAreAggregatedByWildcardPath() {
+        List<Item> items = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            items.add(new Item(i % 2 == 0 ? null : "name", i == 7 ? null : "sku"));
+        }
+        Map<String, String> attributes = new LinkedHashMap<>();
+        attributes.put("color", null);
+        attributes.put(null, "x");
+
+        NullSummary summary = NullValidator.summarize(new Batch(null, items, attributes));
+
+        assertEquals(List.of(
+                "root.id",
+                "root.items[*].name x 500 (root.items[0].name, root.items[2].name, root.items[4].name, ...)",
+                "root.items[*].sku x 1 (root.items[7].sku)",
+                "root.attributes[*] x 1 (root.attributes[color])",
+                "root.attributes.key[*] x 1 (root.attributes.key[null])"
+        ), summary.groups().stream().map(NullSummary.Group::toString).toList());
+        assertEquals(504, summary.count());
+        assertFalse(summary.isTruncated());
+    }
+
+    @Test
+    void noNulls_isAnEmptySummary() {
+        NullSummary summary = NullValidator.summarize(List.of(new Item("a", "b")));
+
+        assertFalse(summary.hasNulls());
+        assertEquals(0, summary.count());
+    }
+
+    @Test
+    void limitsStillApply() {
+        ConfiguredNullValidator validator = NullValidator.builder().maxReportedNulls(10).build();
+
+        List<Item> items = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            items.add(new Item(null, "sku"));
+        }
+
+        NullSummary summary = validator.summarize(items);
+
+        assertEquals(10, summary.count());
+        assertEquals(NullReport.Truncation.MAX_REPORTED_NULLS, summary.truncation());
+    }
+}
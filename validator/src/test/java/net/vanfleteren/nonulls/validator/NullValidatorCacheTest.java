@@ -0,0 +1,67 @@
+package net.vanfleteren.nonulls.validator;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class NullValidatorCacheTest {
+
+    static final AtomicInteger READS = new AtomicInteger();
+
+    record Entry(String sku, UUID id) {
+        @Override
+        public String sku() {
+            READS.incrementAndGet();
+            return sku;
+        }
+    }
+
+    record Wrapper(Entry entry) {}
+
+    record Holder(Entry first, Wrapper wrapper) {}
+
+    record Order(Entry entry, List<String> notes) {}
+
+    private final ConfiguredNullValidator validator = NullValidator.builder().validatedCacheSize(1024).build();
+
+    @Test
+    void nullFreeImmutableRecords_areOnlyWalkedOnce() {
+        Entry entry = new Entry("sku", UUID.randomUUID());
+        READS.set(0);
+
+        assertEquals(List.of(), validator.findNullPaths(List.of(entry)));
+        assertEquals(List.of(), validator.findNullPaths(new Order(entry, List.of("note"))));
+
+        assertEquals(1, READS.get());
+    }
+
+    @Test
+    void immutableRecordsWithNulls_areWalkedEveryTime() {
+        Entry entry = new Entry(null, UUID.randomUUID());
+
+        assertEquals(List.of("root.sku"), validator.findNullPaths(entry));
+        assertEquals(List.of("root.sku"), validator.findNullPaths(entry));
+    }
+
+    @Test
+    void immutableRecordsWithChildrenVisitedElsewhere_areNotCached() {
+        Entry entry = new Entry(null, UUID.randomUUID());
+        Wrapper wrapper = new Wrapper(entry);
+
+        assertEquals(List.of("root.first.sku"), validator.findNullPaths(new Holder(entry, wrapper)));
+        assertEquals(List.of("root.entry.sku"), validator.findNullPaths(wrapper));
+    }
+
+    @Test
+    void mutableRecords_areNotCached() {
+        List<String> notes = new ArrayList<>(List.of("note"));
+        Order order = new Order(new Entry("sku", UUID.randomUUID()), notes);
+
+        assertEquals(List.of(), validator.findNullPaths(order));
+        notes.add(null);
+        assertEquals(List.of("root.notes[1]"), validator.findNullPaths(order));
+    }
+}
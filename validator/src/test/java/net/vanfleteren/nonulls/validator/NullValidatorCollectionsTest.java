@@ -19,6 +19,14 @@ class NullValidatorCollectionsTest {
         assertEquals(List.of("root[1]"), NullValidator.findNullPaths(data));
     }
 
+    @Test
+    void listsWithAndWithoutRandomAccess_reportTheSameIndexes() {
+        List<String> data = Arrays.asList("a", null, "c", null);
+
+        assertEquals(List.of("root[1]", "root[3]"), NullValidator.findNullPaths(new ArrayList<>(data)));
+        assertEquals(List.of("root[1]", "root[3]"), NullValidator.findNullPaths(new LinkedList<>(data)));
+    }
+
     @Test
     void arrayContainingNulls_isDetectedWithIndexes() {
         String[] arr = new String[]{"x", null, "y"};
@@ -26,6 +34,42 @@ class NullValidatorCollectionsTest {
         assertEquals(List.of("root[1]"), NullValidator.findNullPaths(arr));
     }
 
+    @Test
+    void primitiveArrays_areNeverInspected() {
+        record Series(double[] values, long[][] matrix) {}
+
+        assertEquals(List.of(), NullValidator.findNullPaths(new Series(new double[1_000_000], new long[][]{{1L}, {2L}})));
+        assertEquals(List.of("root.matrix[1]"), NullValidator.findNullPaths(new Series(new double[0], new long[][]{{1L}, null})));
+    }
+
+    @Test
+    void nestedObjectArrays_areDetectedWithIndexes() {
+        Object[][] arr = new Object[][]{{"a"}, {"b", null}};
+
+        assertEquals(List.of("root[1][1]"), NullValidator.findNullPaths(arr));
+    }
+
+    @Test
+    void containersOfLeafTypes_stillReportNullElements() {
+        record Dto(List<String> names, Map<String, UUID> ids) {}
+        Map<String, UUID> ids = new LinkedHashMap<>();
+        ids.put(null, UUID.randomUUID());
+        ids.put("b", null);
+
+        assertEquals(List.of("root.names[1]", "root.ids.key[null]", "root.ids[b]"),
+                NullValidator.findNullPaths(new Dto(Arrays.asList("a", null), ids)));
+    }
+
+    @Test
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    void containersOfLeafTypes_withElementsOfAnotherType_areStillValidated() {
+        record Dto(List<String> names) {}
+        List polluted = new ArrayList<>();
+        polluted.add(new Outer(new Outer.Inner(null)));
+
+        assertEquals(List.of("root.names[0].inner.s"), NullValidator.findNullPaths(new Dto(polluted)));
+    }
+
     @Test
     void mapWithNullKeyAndValue_isDetectedWithKeyAndValuePaths() {
         Map<String, String> map = new LinkedHashMap<>();
@@ -2,6 +2,7 @@ package net.vanfleteren.nonulls.validator;
 
 import org.junit.jupiter.api.Test;
 
+import java.util.ArrayList;
 import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -39,4 +40,45 @@ class NullValidatorEdgeCasesTest {
         
         assertEquals(List.of(), NullValidator.findNullPaths(ws));
     }
+
+    record Holder(String value) {}
+
+    @Test
+    void manyDistinctObjects_areAllValidated_evenWithCollidingIdentityHashes() {
+        List<Holder> holders = new ArrayList<>();
+        for (int i = 0; i < 200_000; i++) {
+            holders.add(new Holder(null));
+        }
+
+        assertEquals(200_000, NullValidator.findNullPaths(holders).size());
+    }
+
+    static class Node {
+        String value = "v";
+        Node next;
+    }
+
+    @Test
+    void deeplyNestedStructure_doesNotOverflowTheStack() {
+        Node head = new Node();
+        Node current = head;
+        for (int i = 0; i < 200_000; i++) {
+            current.next = new Node();
+            current = current.next;
+        }
+        current.next = current; // end the chain with a cycle instead of a null
+        current.value = null;
+
+        List<String> nullPaths = NullValidator.findNullPaths(head);
+
+        assertEquals(1, nullPaths.size());
+        assertEquals("root" + ".next".repeat(200_000) + ".value", nullPaths.getFirst());
+    }
+
+    @Test
+    void siblingsSharingAnObject_reportItsNullsUnderTheFirstPathOnly() {
+        Holder shared = new Holder(null);
+
+        assertEquals(List.of("root[0].value"), NullValidator.findNullPaths(List.of(shared, List.of(shared))));
+    }
 }
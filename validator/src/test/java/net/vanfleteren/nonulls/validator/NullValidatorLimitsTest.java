@@ -0,0 +1,107 @@
+package net.vanfleteren.nonulls.validator;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class NullValidatorLimitsTest {
+
+    record Item(String name) {}
+
+    private static List<Item> items(int size, int nullEvery) {
+        List<Item> items = new ArrayList<>();
+        for (int i = 0; i < size; i++) {
+            items.add(new Item(i % nullEvery == 0 ? null : "item" + i));
+        }
+        return items;
+    }
+
+    @Test
+    void maxReportedNulls_stopsAfterTheLimit() {
+        ConfiguredNullValidator validator = NullValidator.builder().maxReportedNulls(2).build();
+
+        NullReport report = validator.validate(Arrays.asList("a", null, null, null));
+
+        assertEquals(List.of("root[1]", "root[2]"), report.nullPaths());
+        assertEquals(NullReport.Truncation.MAX_REPORTED_NULLS, report.truncation());
+    }
+
+    @Test
+    void maxReportedNulls_notReached_isNotTruncated() {
+        ConfiguredNullValidator validator = NullValidator.builder().maxReportedNulls(2).build();
+
+        NullReport report = validator.validate(Arrays.asList("a", null, null));
+
+        assertEquals(List.of("root[1]", "root[2]"), report.nullPaths());
+        assertFalse(report.isTruncated());
+    }
+
+    @Test
+    void maxDepth_skipsDeeperObjects() {
+        ConfiguredNullValidator validator = NullValidator.builder().maxDepth(1).build();
+        List<Object> graph = Arrays.asList(null, List.of(new Item(null)), new Item(null));
+
+        NullReport report = validator.validate(graph);
+
+        assertEquals(List.of("root[0]", "root[2].name"), report.nullPaths());
+        assertEquals(NullReport.Truncation.MAX_DEPTH, report.truncation());
+    }
+
+    @Test
+    void maxNodes_stopsWhenMoreObjectsAreFound() {
+        ConfiguredNullValidator validator = NullValidator.builder().maxNodes(3).build();
+
+        NullReport report = validator.validate(items(10, 1));
+
+        assertEquals(List.of("root[0].name", "root[1].name"), report.nullPaths());
+        assertEquals(NullReport.Truncation.MAX_NODES, report.truncation());
+    }
+
+    @Test
+    void timeout_stopsLongValidations() {
+        ConfiguredNullValidator validator = NullValidator.builder().timeout(Duration.ofNanos(1)).build();
+
+        NullReport report = validator.validate(items(10_000, 20_000));
+
+        assertEquals(NullReport.Truncation.DEADLINE, report.truncation());
+    }
+
+    @Test
+    void assertNoNulls_failsWhenTruncatedWithoutNulls() {
+        ConfiguredNullValidator validator = NullValidator.builder().maxNodes(1).build();
+        List<Item> items = List.of(new Item("a"), new Item("b"));
+
+        NullsFoundException exception = assertThrows(NullsFoundException.class, () -> validator.assertNoNulls(items));
+
+        assertEquals(List.of(), exception.getNullPaths());
+        assertEquals(NullReport.Truncation.MAX_NODES, exception.getTruncation());
+        assertFalse(validator.hasNoNulls(items));
+        assertTrue(NullValidator.hasNoNulls(items));
+    }
+
+    @Test
+    void parallel_reportsTheSameFirstNullsAsSequential() {
+        List<Item> items = items(100_000, 7);
+        ConfiguredNullValidator sequential = NullValidator.builder().maxReportedNulls(1_000).build();
+        ConfiguredNullValidator parallel = NullValidator.builder().maxReportedNulls(1_000).parallel(true).parallelThreshold(1_000).build();
+
+        NullReport expected = sequential.validate(items);
+        NullReport actual = parallel.validate(items);
+
+        assertEquals(expected.nullPaths(), actual.nullPaths());
+        assertEquals(NullReport.Truncation.MAX_REPORTED_NULLS, actual.truncation());
+    }
+
+    @Test
+    void parallel_staysWithinMaxNodes() {
+        ConfiguredNullValidator parallel = NullValidator.builder().maxNodes(5_000).parallel(true).parallelThreshold(1_000).build();
+
+        NullReport report = parallel.validate(items(100_000, 7));
+
+        assertEquals(NullReport.Truncation.MAX_NODES, report.truncation());
+        assertTrue(report.nullPaths().size() < 5_000);
+    }
+}
@@ -0,0 +1,132 @@
+package net.vanfleteren.nonulls.validator;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class NullValidatorParallelTest {
+
+    record Line(String sku, List<String> tags) {}
+
+    record Holder(Line line) {}
+
+    private static List<Line> lines(int size) {
+        List<Line> lines = new ArrayList<>();
+        for (int i = 0; i < size; i++) {
+            lines.add(new Line(i % 97 == 0 ? null : "sku" + i, i % 1013 == 0 ? Arrays.asList("t", null) : List.of("t")));
+        }
+        return lines;
+    }
+
+    @Test
+    void largeCollection_reportsSameNullPathsInSameOrderAsSequential() {
+        List<Line> lines = lines(100_000);
+
+        List<String> expected = NullValidator.findNullPaths(lines);
+
+        assertFalse(expected.isEmpty());
+        assertEquals(expected, NullValidator.parallel().findNullPaths(lines));
+    }
+
+    @Test
+    void nestedLargeContainers_areSplitRecursively() {
+        Map<String, Object> map = new LinkedHashMap<>();
+        for (int i = 0; i < 50; i++) {
+            map.put("k" + i, i % 7 == 0 ? null : lines(500).toArray());
+        }
+        map.put(null, "null key");
+        ConfiguredNullValidator validator = NullValidator.builder()
+                .parallel(true)
+                .parallelThreshold(16)
+                .pool(new ForkJoinPool(4))
+                .build();
+
+        assertEquals(NullValidator.findNullPaths(map), validator.findNullPaths(map));
+    }
+
+    @Test
+    void sharedObjects_areReportedOnce_whateverThePoolSize() {
+        Line shared = new Line(null, List.of());
+        List<Line> same = Collections.nCopies(40_000, shared);
+        List<Object> nested = new ArrayList<>();
+        for (int i = 0; i < 40_000; i++) {
+            nested.add(i % 2 == 0 ? new Holder(shared) : shared);
+        }
+
+        assertEquals(List.of("root[0].sku"), NullValidator.findNullPaths(same));
+        assertEquals(List.of("root[0].line.sku"), NullValidator.findNullPaths(nested));
+        for (int parallelism : new int[]{1, 2, 8}) {
+            ForkJoinPool pool = new ForkJoinPool(parallelism);
+            try {
+                for (TraversalMode mode : new TraversalMode[]{TraversalMode.CYCLIC, TraversalMode.DAG}) {
+                    ConfiguredNullValidator validator = NullValidator.builder()
+                            .parallel(true)
+                            .parallelThreshold(16)
+                            .pool(pool)
+                            .traversalMode(mode)
+                            .build();
+                    assertEquals(List.of("root[0].sku"), validator.findNullPaths(same));
+                    assertEquals(List.of("root[0].line.sku"), validator.findNullPaths(nested));
+                    assertEquals(List.of("root[k][0].line.sku"), validator.findNullPaths(Map.of("k", nested.toArray())));
+                }
+            } finally {
+                pool.shutdown();
+            }
+        }
+    }
+
+    @Test
+    void maxNodes_isSharedByTheChunks_soAnUnbalancedGraphIsWalkedLikeSequentially() {
+        // nearly all nodes are below the first element, so they end up in a single chunk
+        List<Object> unbalanced = new ArrayList<>();
+        unbalanced.add(lines(20_000));
+        unbalanced.addAll(lines(999));
+        long needed = nodesNeeded(unbalanced);
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            ConfiguredNullValidator.Builder builder = NullValidator.builder().parallel(true).parallelThreshold(16).pool(pool);
+
+            NullReport report = builder.maxNodes(needed).build().validate(unbalanced);
+            NullReport truncated = builder.maxNodes(needed - 1).build().validate(unbalanced);
+
+            assertNull(report.truncation());
+            assertEquals(NullValidator.findNullPaths(unbalanced), report.nullPaths());
+            assertEquals(NullReport.Truncation.MAX_NODES, truncated.truncation());
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * The lowest node limit a sequential validation walks the whole graph with.
+     */
+    private static long nodesNeeded(Object graph) {
+        long low = 1;
+        long high = 1_000_000;
+        while (low < high) {
+            long middle = (low + high) / 2;
+            if (NullValidator.builder().maxNodes(middle).build().validate(graph).isTruncated()) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    @Test
+    void findFirstNullPath_returnsTheFirstNullInSequentialOrder() {
+        List<Line> lines = lines(100_000);
+
+        assertEquals(Optional.of("root[0].sku"), NullValidator.parallel().findFirstNullPath(lines));
+        assertTrue(NullValidator.parallel().hasNoNulls(List.of(new Line("a", List.of()))));
+    }
+
+    @Test
+    void parallelThreshold_mustAllowSplitting() {
+        assertThrows(IllegalArgumentException.class, () -> NullValidator.builder().parallelThreshold(1));
+    }
+}
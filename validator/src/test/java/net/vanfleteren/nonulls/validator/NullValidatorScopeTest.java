@@ -0,0 +1,119 @@
+package net.vanfleteren.nonulls.validator;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class NullValidatorScopeTest {
+
+    record Line(String sku, String note) {}
+
+    record Order(String id, List<Line> lines) {}
+
+    record Customer(String id, String name, Map<String, String> attributes) {}
+
+    static final AtomicInteger AUDIT_READS = new AtomicInteger();
+
+    record Audit(String by) {
+        @Override
+        public String by() {
+            AUDIT_READS.incrementAndGet();
+            return by;
+        }
+    }
+
+    record Batch(List<Order> orders, Customer customer, Audit audit) {}
+
+    record Pair(Line a, Line b) {}
+
+    private static Batch batch() {
+        List<Order> orders = List.of(
+                new Order(null, List.of(new Line("a", null), new Line(null, "n"))),
+                new Order("2", Arrays.asList(new Line("b", null), null)));
+        Customer customer = new Customer("c", null, new HashMap<>(Collections.singletonMap("vip", null)));
+        return new Batch(orders, customer, new Audit(null));
+    }
+
+    @Test
+    void onlyNullsInScope_areReported() {
+        ConfiguredNullValidator validator = NullValidator.scoped("orders[*].lines[*].sku", "customer.**");
+
+        assertEquals(List.of("root.orders[0].lines[1].sku", "root.orders[1].lines[1]", "root.customer.name", "root.customer.attributes[vip]"),
+                validator.findNullPaths(batch()));
+    }
+
+    @Test
+    void nullsOnTheWayToAMatch_areReported() {
+        ConfiguredNullValidator validator = NullValidator.scoped("orders[*].lines[*].sku", "customer.id");
+
+        assertEquals(List.of("root.orders", "root.customer"), validator.findNullPaths(new Batch(null, null, new Audit("x"))));
+    }
+
+    @Test
+    void subtreesOutOfScope_areNotWalked() {
+        ConfiguredNullValidator validator = NullValidator.scoped("customer.id");
+        AUDIT_READS.set(0);
+
+        assertTrue(validator.hasNoNulls(batch()));
+        assertEquals(0, AUDIT_READS.get());
+        assertEquals(List.of("root.audit.by"), NullValidator.findNullPaths(new Batch(List.of(), new Customer("c", "n", Map.of()), new Audit(null))));
+        assertEquals(1, AUDIT_READS.get());
+    }
+
+    @Test
+    void anyProperty_matchesASingleProperty() {
+        ConfiguredNullValidator validator = NullValidator.scoped("orders[*].*");
+
+        assertEquals(List.of("root.orders[0].id"), validator.findNullPaths(batch()));
+    }
+
+    @Test
+    void anyPath_matchesEverythingBelow() {
+        assertEquals(NullValidator.findNullPaths(batch()), NullValidator.scoped("**").findNullPaths(batch()));
+        assertEquals(List.of("root.orders[0].lines[0].note", "root.orders[1].lines[0].note"),
+                NullValidator.scoped("**.note").findNullPaths(batch()));
+    }
+
+    @Test
+    void scopedParallelValidation_reportsTheSameNulls() {
+        List<Line> lines = new ArrayList<>();
+        for (int i = 0; i < 5_000; i++) {
+            lines.add(new Line(i % 100 == 0 ? null : "sku", null));
+        }
+        Order order = new Order("o", lines);
+        ConfiguredNullValidator parallel = NullValidator.builder().scope("lines[*].sku").parallel(true).parallelThreshold(100).build();
+
+        List<String> nullPaths = parallel.findNullPaths(order);
+
+        assertEquals(NullValidator.scoped("lines[*].sku").findNullPaths(order), nullPaths);
+        assertEquals(50, nullPaths.size());
+    }
+
+    @Test
+    void sharedObjects_areWalkedAgain_forPartsThatWerentInScopeYet() {
+        Line shared = new Line(null, "n");
+        Pair pair = new Pair(shared, shared);
+
+        assertEquals(List.of("root.b.sku"), NullValidator.scoped("a.note", "b.**").findNullPaths(pair));
+        assertEquals(List.of("root.b.sku"), NullValidator.builder().scope("a.note", "b.**").traversalMode(TraversalMode.DAG).build().findNullPaths(pair));
+        // reached in the same state, so it is only walked once
+        assertEquals(List.of("root.a.sku"), NullValidator.scoped("*.sku").findNullPaths(pair));
+
+        List<Pair> pairs = Collections.nCopies(1_000, pair);
+        ConfiguredNullValidator parallel = NullValidator.builder().scope("[*].a.note", "[*].b.**").parallel(true).parallelThreshold(16).build();
+        assertEquals(List.of("root[0].b.sku"), parallel.findNullPaths(pairs));
+    }
+
+    @Test
+    void invalidPatterns_areRejected() {
+        assertThrows(IllegalArgumentException.class, () -> NullValidator.scoped());
+        assertThrows(IllegalArgumentException.class, () -> NullValidator.scoped(""));
+        assertThrows(IllegalArgumentException.class, () -> NullValidator.scoped("orders..lines"));
+        assertThrows(IllegalArgumentException.class, () -> NullValidator.scoped("orders[3]"));
+        assertThrows(IllegalArgumentException.class, () -> NullValidator.scoped("ord*rs"));
+        assertThrows(IllegalArgumentException.class, () -> NullValidator.scoped("a.".repeat(63) + "a"));
+    }
+}
@@ -0,0 +1,95 @@
+package net.vanfleteren.nonulls.validator;
+
+import org.junit.jupiter.api.Test;
+
+import java.lang.management.ManagementFactory;
+import java.time.Duration;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+class NullValidatorScratchTest {
+
+    record Line(String sku, int quantity, Optional<String> note) {}
+
+    record Order(String id, List<Line> lines, Set<String> tags, Map<String, String> attributes, Line[] extra) {}
+
+    private static Order order(int lineCount, String sku) {
+        List<Line> lines = new ArrayList<>();
+        for (int i = 0; i < lineCount; i++) {
+            lines.add(new Line(i == lineCount - 1 ? sku : "sku" + i, i, Optional.of("note")));
+        }
+        return new Order("order", lines, Set.of(), Map.of(), new Line[]{new Line("extra", 1, Optional.empty())});
+    }
+
+    @Test
+    void validatingAGraphWithoutNulls_doesNotAllocate() {
+        assertDoesNotAllocate(NullValidator.builder().build());
+    }
+
+    @Test
+    void validatingAGraphWithoutNulls_doesNotAllocate_withATimeout() {
+        assertDoesNotAllocate(NullValidator.builder().timeout(Duration.ofMinutes(1)).maxNodes(1_000_000).build());
+    }
+
+    private static void assertDoesNotAllocate(ConfiguredNullValidator validator) {
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        assumeTrue(threads.isThreadAllocatedMemorySupported() && threads.isThreadAllocatedMemoryEnabled());
+        Order order = order(100, "sku");
+        for (int i = 0; i < 20_000; i++) {
+            validator.assertNoNulls(order);
+            validator.hasNoNulls(order);
+        }
+
+        long threadId = Thread.currentThread().threadId();
+        long before = threads.getThreadAllocatedBytes(threadId);
+        for (int i = 0; i < 1_000; i++) {
+            validator.assertNoNulls(order);
+            validator.hasNoNulls(order);
+        }
+        long allocated = threads.getThreadAllocatedBytes(threadId) - before;
+
+        // a single object allocated per validation would add up to tens of kilobytes
+        assertTrue(allocated < 1_000, "allocated " + allocated + " bytes");
+    }
+
+    @Test
+    void reusedState_doesNotLeakIntoTheNextValidation() {
+        ConfiguredNullValidator validator = NullValidator.builder().maxReportedNulls(5).build();
+        Order withNull = order(3, null);
+        Order withoutNull = order(3, "sku");
+
+        for (int i = 0; i < 3; i++) {
+            assertEquals(List.of("root.lines[2].sku"), validator.findNullPaths(withNull));
+            assertTrue(validator.hasNoNulls(withoutNull));
+            assertEquals(Optional.of("root.lines[2].sku"), validator.findFirstNullPath(withNull));
+            assertFalse(validator.validate(withoutNull).hasNulls());
+            assertThrows(NullsFoundException.class, () -> validator.assertNoNulls(withNull));
+        }
+    }
+
+    @Test
+    void validationsCanBeNested() {
+        ConfiguredNullValidator validator = NullValidator.builder().build();
+        List<String> nested = new ArrayList<>();
+
+        validator.validate(order(2, null), path -> nested.addAll(validator.findNullPaths(List.of(path.toString(), Arrays.asList("a", null)))));
+
+        assertEquals(List.of("root[1][1]"), nested);
+    }
+
+    @Test
+    void failedValidation_doesNotBreakTheNextOne() {
+        class Broken {
+            final List<String> values = Arrays.asList("a", null);
+        }
+        ConfiguredNullValidator validator = NullValidator.builder().build();
+        RuntimeException failure = new RuntimeException("sink failed");
+
+        assertSame(failure, assertThrows(RuntimeException.class, () -> validator.validate(new Broken(), path -> {
+            throw failure;
+        })));
+        assertEquals(List.of("root.values[1]"), validator.findNullPaths(new Broken()));
+    }
+}
@@ -3,8 +3,7 @@ package net.vanfleteren.nonulls.validator;
 import org.junit.jupiter.api.Test;
 
 import java.math.BigDecimal;
-import java.util.HashMap;
-import java.util.List;
+import java.util.*;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -20,6 +19,15 @@ class NullValidatorTest {
         assertEquals(List.of(), NullValidator.findNullPaths("ok"));
     }
 
+    @Test
+    void valueTypesWithOnlyPrimitives_canOnlyBeNullThemselves() {
+        record GeoPoint(double lat, double lon) {}
+        record Route(GeoPoint start, List<GeoPoint> stops) {}
+
+        assertEquals(List.of(), NullValidator.findNullPaths(new Route(new GeoPoint(1, 2), List.of(new GeoPoint(3, 4)))));
+        assertEquals(List.of("root.start", "root.stops[1]"), NullValidator.findNullPaths(new Route(null, Arrays.asList(new GeoPoint(3, 4), null))));
+    }
+
     @Test
     void hasNoNulls_returnsFalseWhenNullsFound() {
         HashMap<String, String> map = new HashMap<>();
@@ -27,4 +35,60 @@ class NullValidatorTest {
 
         assertEquals(List.of("root[ok]"), NullValidator.findNullPaths(map));
     }
+
+    @Test
+    void hasNoNulls_returnsTrueOnlyWithoutNulls() {
+        assertTrue(NullValidator.hasNoNulls(List.of("a", "b")));
+        assertFalse(NullValidator.hasNoNulls(Arrays.asList("a", null)));
+        assertFalse(NullValidator.hasNoNulls(null));
+    }
+
+    @Test
+    void findFirstNullPath_returnsOnlyTheFirstNull() {
+        Map<String, Object> map = new LinkedHashMap<>();
+        map.put("a", Arrays.asList("x", null, null));
+        map.put("b", null);
+
+        assertEquals(Optional.of("root[a][1]"), NullValidator.findFirstNullPath(map));
+        assertEquals(Optional.empty(), NullValidator.findFirstNullPath(List.of("x")));
+        assertEquals(Optional.of("root"), NullValidator.findFirstNullPath(null));
+    }
+
+    @Test
+    void findFirstNullPath_stopsTraversalAtTheFirstNull() {
+        List<Object> visited = new ArrayList<>();
+        Iterable<Object> lazy = () -> new Iterator<>() {
+            int index = 0;
+
+            @Override
+            public boolean hasNext() {
+                return true;
+            }
+
+            @Override
+            public Object next() {
+                visited.add(index);
+                return index++ == 2 ? null : "value";
+            }
+        };
+        List<Object> infinite = new AbstractList<>() {
+            @Override
+            public Iterator<Object> iterator() {
+                return lazy.iterator();
+            }
+
+            @Override
+            public Object get(int index) {
+                throw new UnsupportedOperationException();
+            }
+
+            @Override
+            public int size() {
+                return Integer.MAX_VALUE;
+            }
+        };
+
+        assertEquals(Optional.of("root[2]"), NullValidator.findFirstNullPath(infinite));
+        assertEquals(List.of(0, 1, 2), visited);
+    }
 }
@@ -0,0 +1,118 @@
+package net.vanfleteren.nonulls.validator;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class NullValidatorTraversalModeTest {
+
+    record Item(String name) {}
+
+    record Order(Item first, Item second, List<Item> items) {}
+
+    static class Node {
+        String value;
+        Node next;
+
+        Node(String value) {
+            this.value = value;
+        }
+    }
+
+    private static ConfiguredNullValidator validator(TraversalMode mode) {
+        return NullValidator.builder().traversalMode(mode).build();
+    }
+
+    @Test
+    void tree_findsTheSameNullsInATree() {
+        Order order = new Order(new Item(null), new Item("b"), List.of(new Item("c"), new Item(null)));
+
+        for (TraversalMode mode : TraversalMode.values()) {
+            NullReport report = validator(mode).validate(order);
+
+            assertEquals(List.of("root.first.name", "root.items[1].name"), report.nullPaths(), mode.name());
+            assertFalse(report.isTruncated(), mode.name());
+        }
+    }
+
+    @Test
+    void tree_reportsASharedObjectForEveryPath() {
+        Item shared = new Item(null);
+        Order order = new Order(shared, shared, List.of(shared));
+
+        assertEquals(List.of("root.first.name", "root.second.name", "root.items[0].name"),
+                NullValidator.tree().findNullPaths(order));
+        assertEquals(List.of("root.first.name"), validator(TraversalMode.DAG).findNullPaths(order));
+        assertEquals(List.of("root.first.name"), validator(TraversalMode.CYCLIC).findNullPaths(order));
+    }
+
+    @Test
+    void dag_doesNotTrackCollections() {
+        List<Item> shared = Arrays.asList(null, new Item("a"));
+
+        assertEquals(List.of("root[0][0]", "root[1][0]"), validator(TraversalMode.DAG).findNullPaths(List.of(shared, shared)));
+        assertEquals(List.of("root[0][0]"), validator(TraversalMode.CYCLIC).findNullPaths(List.of(shared, shared)));
+    }
+
+    @Test
+    void dag_detectsCyclesThroughPojos() {
+        Node node = new Node("a");
+        node.next = node;
+
+        NullReport report = validator(TraversalMode.DAG).validate(node);
+
+        assertTrue(report.nullPaths().isEmpty());
+        assertFalse(report.isTruncated());
+    }
+
+    @Test
+    void tree_stopsAtTheDefaultMaxDepth_onACycle() {
+        Node node = new Node("a");
+        node.next = node;
+
+        NullReport report = NullValidator.tree().validate(node);
+
+        assertTrue(report.nullPaths().isEmpty());
+        assertEquals(NullReport.Truncation.MAX_DEPTH, report.truncation());
+        assertThrows(NullsFoundException.class, () -> NullValidator.tree().assertNoNulls(node));
+    }
+
+    @Test
+    void tree_usesTheConfiguredMaxDepth() {
+        Node head = new Node("head");
+        Node current = head;
+        for (int i = 0; i < TraversalMode.DEFAULT_MAX_DEPTH * 2; i++) {
+            current.next = new Node("node" + i);
+            current = current.next;
+        }
+
+        assertEquals(NullReport.Truncation.MAX_DEPTH, NullValidator.tree().validate(head).truncation());
+
+        ConfiguredNullValidator deep = NullValidator.builder().traversalMode(TraversalMode.TREE).maxDepth(TraversalMode.DEFAULT_MAX_DEPTH * 3).build();
+        assertEquals(List.of("root" + ".next".repeat(TraversalMode.DEFAULT_MAX_DEPTH * 2 + 1)), deep.findNullPaths(head));
+        assertNull(deep.validate(head).truncation());
+    }
+
+    @Test
+    void withTraversalMode_switchesTheModeForASingleValidation() {
+        Item shared = new Item(null);
+        ConfiguredNullValidator validator = NullValidator.builder().maxReportedNulls(10).build();
+
+        assertEquals(1, validator.findNullPaths(List.of(shared, shared)).size());
+        assertEquals(2, validator.withTraversalMode(TraversalMode.TREE).findNullPaths(List.of(shared, shared)).size());
+        assertSame(validator, validator.withTraversalMode(TraversalMode.CYCLIC));
+    }
+
+    @Test
+    void tree_inParallel_findsTheSameNulls() {
+        List<Item> items = new ArrayList<>();
+        for (int i = 0; i < 30_000; i++) {
+            items.add(new Item(i % 1000 == 0 ? null : "item"));
+        }
+        ConfiguredNullValidator validator = NullValidator.builder().traversalMode(TraversalMode.TREE).parallel(true).build();
+
+        assertEquals(NullValidator.findNullPaths(items), validator.findNullPaths(items));
+    }
+}
@@ -0,0 +1,85 @@
+package net.vanfleteren.nonulls.validator;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class NullsFoundExceptionTest {
+
+    record Item(String name, String sku) {}
+
+    record Catalog(Map<Integer, Item> items) {}
+
+    @Test
+    void message_listsThePaths() {
+        NullsFoundException exception = assertThrows(NullsFoundException.class, () -> NullValidator.assertNoNulls(new Item(null, null)));
+
+        assertEquals("Null value(s) found at: root.name, root.sku", exception.getMessage());
+        assertSame(exception.getMessage(), exception.getMessage());
+        assertEquals(List.of("root.name", "root.sku"), exception.getReport().nullPaths());
+        assertTrue(exception.getStackTrace().length > 0);
+    }
+
+    @Test
+    void message_mentionsTheTruncation() {
+        ConfiguredNullValidator validator = NullValidator.builder().maxReportedNulls(1).build();
+
+        NullsFoundException exception = assertThrows(NullsFoundException.class, () -> validator.assertNoNulls(new Item(null, null)));
+
+        assertEquals("Null value(s) found at: root.name (validation stopped early, limit reached: MAX_REPORTED_NULLS)", exception.getMessage());
+    }
+
+    @Test
+    void withoutStackTrace_hasNoStackTrace() {
+        ConfiguredNullValidator validator = NullValidator.builder().captureStackTrace(false).build();
+
+        NullsFoundException exception = assertThrows(NullsFoundException.class, () -> validator.assertNoNulls(new Item(null, "sku")));
+
+        assertEquals(0, exception.getStackTrace().length);
+        assertEquals(List.of("root.name"), exception.getNullPaths());
+        assertEquals("Null value(s) found at: root.name", exception.getMessage());
+    }
+
+    @Test
+    void canBeCreatedFromAReport() {
+        NullReport report = NullValidator.validate(new Item("name", null));
+
+        NullsFoundException exception = new NullsFoundException(report, false);
+
+        assertSame(report, exception.getReport());
+        assertEquals(List.of("root.sku"), exception.getNullPaths());
+        assertNull(exception.getTruncation());
+    }
+
+    @Test
+    void survivesSerialization() throws Exception {
+        ConfiguredNullValidator validator = NullValidator.builder().maxReportedNulls(1).build();
+        NullsFoundException exception = assertThrows(NullsFoundException.class,
+                () -> validator.assertNoNulls(new Catalog(Map.of(7, new Item(null, null), 8, new Item("name", "sku")))));
+
+        NullsFoundException copy = roundTrip(exception);
+
+        assertEquals(exception.getMessage(), copy.getMessage());
+        assertEquals(exception.getPaths(), copy.getPaths());
+        assertEquals(NullReport.Truncation.MAX_REPORTED_NULLS, copy.getTruncation());
+        assertEquals(NullPath.root().property("items").key(7).property("name"), copy.getPaths().getFirst());
+    }
+
+    private static NullsFoundException roundTrip(NullsFoundException exception) throws IOException, ClassNotFoundException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            out.writeObject(exception);
+        }
+        try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+            return (NullsFoundException) in.readObject();
+        }
+    }
+}
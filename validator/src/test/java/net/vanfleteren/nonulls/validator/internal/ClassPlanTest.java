@@ -0,0 +1,150 @@
+package net.vanfleteren.nonulls.validator.internal;
+
+import net.vanfleteren.nonulls.validator.NullValidator;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ClassPlanTest {
+
+    record Inner(String s) {}
+
+    record GeoPoint(double lat, double lon) {}
+
+    static class Counter {
+        long count;
+        static String label;
+    }
+
+    record Money(long cents, String currency) {}
+
+    record Dto(List<String> names, Set<UUID> ids, Map<String, Inner> inners, String[] codes, List<Inner> children, List<? extends CharSequence> wildcard) {}
+
+    @Test
+    void containerProperties_knowTheirLeafElementTypes() {
+        Map<String, Property> properties = new HashMap<>();
+        ClassPlan.of(Dto.class).properties().forEach(property -> properties.put(property.name(), property));
+
+        assertEquals(String.class, properties.get("names").leafElementType());
+        assertEquals(UUID.class, properties.get("ids").leafElementType());
+        assertEquals(String.class, properties.get("inners").leafKeyType());
+        assertNull(properties.get("inners").leafElementType());
+        assertEquals(String.class, properties.get("codes").leafElementType());
+        assertNull(properties.get("children").leafElementType());
+        assertNull(properties.get("wildcard").leafElementType());
+    }
+
+    @Test
+    void typesWithOnlyPrimitiveProperties_areLeaves() {
+        assertEquals(ClassPlan.Kind.LEAF, ClassPlan.of(GeoPoint.class).kind());
+        assertEquals(ClassPlan.Kind.LEAF, ClassPlan.of(Counter.class).kind());
+        assertEquals(ClassPlan.Kind.RECORD, ClassPlan.of(Money.class).kind());
+    }
+
+    @Test
+    void containersOfNullFreeTypes_knowTheirLeafElementTypes() {
+        record Route(List<GeoPoint> points) {}
+
+        assertEquals(GeoPoint.class, ClassPlan.of(Route.class).properties().getFirst().leafElementType());
+    }
+
+    enum Status { ACTIVE }
+
+    record Entry(String sku, UUID id, Optional<String> note, Status status, Money price, Optional<Entry> replacedBy) {}
+
+    @Test
+    void recordsWithOnlyImmutableComponents_areImmutable() {
+        assertTrue(ClassPlan.of(Entry.class).immutable());
+        assertTrue(ClassPlan.of(Money.class).immutable());
+        assertFalse(ClassPlan.of(Dto.class).immutable());
+        assertFalse(ClassPlan.of(Counter.class).immutable());
+    }
+
+    @Test
+    void everyClassHasASingleKind() {
+        assertEquals(ClassPlan.Kind.LIST, ClassPlan.of(ArrayList.class).kind());
+        assertEquals(ClassPlan.Kind.LIST, ClassPlan.of(List.of(1, 2, 3).getClass()).kind());
+        assertEquals(ClassPlan.Kind.COLLECTION, ClassPlan.of(LinkedList.class).kind());
+        assertEquals(ClassPlan.Kind.ENUM, ClassPlan.of(Status.class).kind());
+        assertEquals(ClassPlan.Kind.OPAQUE, ClassPlan.of(UUID.class).kind());
+        assertEquals(ClassPlan.Kind.RECORD, ClassPlan.of(Entry.class).kind());
+    }
+
+    @Test
+    void onlyTypesThatMightContainNulls_areWalkable() {
+        assertFalse(ClassPlan.of(String.class).walkable());
+        assertFalse(ClassPlan.of(Status.class).walkable());
+        assertFalse(ClassPlan.of(UUID.class).walkable());
+        assertTrue(ClassPlan.of(ArrayList.class).walkable());
+        assertTrue(ClassPlan.of(Entry.class).walkable());
+    }
+
+    @Test
+    void primitiveArrays_areLeaves() {
+        assertEquals(ClassPlan.Kind.LEAF, ClassPlan.of(double[].class).kind());
+        assertEquals(ClassPlan.Kind.ARRAY, ClassPlan.of(double[][].class).kind());
+    }
+
+    @Test
+    void plans_areCreatedOncePerClass() {
+        assertSame(ClassPlan.of(Dto.class), ClassPlan.of(Dto.class));
+        assertSame(ClassPlan.of(Counter.class), ClassPlan.of(Counter.class));
+        assertSame(ClassPlan.of(Dto.class, false), ClassPlan.of(Dto.class, false));
+    }
+
+    static class Base {
+        static String registry;
+        String shadowed;
+        String name;
+        int version;
+    }
+
+    static class Derived extends Base {
+        static final String DEFAULT = "default";
+        private String shadowed;
+        private String note;
+    }
+
+    class Remark extends Derived {
+        String text;
+    }
+
+    @Test
+    void inheritedStaticAndSyntheticFields_areWalkedLikeTheReflectiveWalkDid() throws IllegalAccessException {
+        Derived derived = new Derived();
+        derived.note = "note";
+        Remark remark = new Remark();
+        remark.name = "name";
+        Base.registry = null;
+
+        assertEquals(List.of("shadowed", "note", "shadowed", "name"), ClassPlan.of(Derived.class).properties().stream().map(Property::name).toList());
+        assertEquals(List.of("text", "shadowed", "note", "shadowed", "name"), ClassPlan.of(Remark.class).properties().stream().map(Property::name).toList());
+        assertEquals(reflectiveNullPaths(derived), NullValidator.findNullPaths(derived));
+        assertEquals(reflectiveNullPaths(remark), NullValidator.findNullPaths(remark));
+        assertEquals(List.of("root.text", "root.shadowed", "root.note", "root.shadowed"), NullValidator.findNullPaths(remark));
+    }
+
+    /**
+     * The null paths of a pojo with only string fields as reflecting over its fields reports them:
+     * from the class itself up to its superclasses, leaving out static and synthetic fields.
+     */
+    private static List<String> reflectiveNullPaths(Object pojo) throws IllegalAccessException {
+        List<String> paths = new ArrayList<>();
+        for (Class<?> current = pojo.getClass(); current != Object.class; current = current.getSuperclass()) {
+            for (Field field : current.getDeclaredFields()) {
+                if (Modifier.isStatic(field.getModifiers()) || field.isSynthetic()) {
+                    continue;
+                }
+                field.setAccessible(true);
+                if (field.get(pojo) == null) {
+                    paths.add("root." + field.getName());
+                }
+            }
+        }
+        return paths;
+    }
+}
@@ -0,0 +1,97 @@
+package net.vanfleteren.nonulls.validator.internal;
+
+import net.vanfleteren.nonulls.validator.ConfiguredNullValidator;
+import net.vanfleteren.nonulls.validator.NullReport;
+import net.vanfleteren.nonulls.validator.NullValidator;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HiddenClassReadersTest {
+
+    record Line(String sku, int quantity, List<String> tags) {}
+
+    static class ParentPojo {
+        String parent;
+    }
+
+    static class ChildPojo extends ParentPojo {
+        private String child;
+        long ignored;
+    }
+
+    static class PrivateParentPojo {
+        private String parent;
+    }
+
+    static class PrivateChildPojo extends PrivateParentPojo {
+        String child;
+    }
+
+    record Graph(List<Line> lines, ChildPojo child, PrivateChildPojo privateChild, Map<String, Line> byKey, Graph next) {}
+
+    @Test
+    void record_readerIsGenerated_andReadsComponentsInPlanOrder() {
+        ClassPlan plan = ClassPlan.of(Line.class);
+        PropertiesReader reader = plan.reader();
+
+        assertNotNull(reader);
+        assertTrue(reader.getClass().isHidden());
+        assertEquals(List.of("sku", "tags"), plan.properties().stream().map(Property::name).toList());
+
+        Object[] values = new Object[2];
+        reader.read(new Line("a", 1, List.of("t")), values);
+        assertArrayEquals(new Object[]{"a", List.of("t")}, values);
+    }
+
+    @Test
+    void pojo_readerIsGenerated_includingPrivateAndInheritedFields() {
+        ChildPojo pojo = new ChildPojo();
+        pojo.child = "c";
+        ClassPlan plan = ClassPlan.of(ChildPojo.class);
+        PropertiesReader reader = plan.reader();
+
+        assertNotNull(reader);
+        assertEquals(List.of("child", "parent"), plan.properties().stream().map(Property::name).toList());
+
+        Object[] values = new Object[2];
+        reader.read(pojo, values);
+        assertArrayEquals(new Object[]{"c", null}, values);
+        assertEquals(List.of("root.parent"), NullValidator.findNullPaths(pojo));
+    }
+
+    @Test
+    void privateInheritedField_fallsBackToPropertyByPropertyAccess() {
+        PrivateChildPojo pojo = new PrivateChildPojo();
+
+        assertNull(ClassPlan.of(PrivateChildPojo.class).reader());
+        assertEquals(List.of("root.child", "root.parent"), NullValidator.findNullPaths(pojo));
+    }
+
+    @Test
+    void withoutHiddenClasses_propertiesAreReadOneByOne_andTheSameNullsAreReported() {
+        ConfiguredNullValidator reflective = NullValidator.builder().hiddenClasses(false).build();
+        ChildPojo child = new ChildPojo();
+        child.child = "c";
+        List<Line> lines = new ArrayList<>(Arrays.asList(new Line(null, 1, List.of()), null, new Line("b", 2, null)));
+        Graph graph = new Graph(lines, child, new PrivateChildPojo(), Map.of("k", new Line("k", 3, null)),
+                new Graph(null, new ChildPojo(), null, Map.of(), null));
+
+        NullReport withHiddenClasses = NullValidator.validate(graph);
+        NullReport withoutHiddenClasses = reflective.validate(graph);
+
+        assertEquals(List.of("root.lines[0].sku", "root.lines[1]", "root.lines[2].tags", "root.child.parent",
+                        "root.privateChild.child", "root.privateChild.parent", "root.byKey[k].tags",
+                        "root.next.lines", "root.next.child.child", "root.next.child.parent", "root.next.privateChild", "root.next.next"),
+                withHiddenClasses.nullPaths());
+        assertEquals(withHiddenClasses.nullPaths(), withoutHiddenClasses.nullPaths());
+        assertNotNull(ClassPlan.of(Graph.class, true).reader());
+        assertNull(ClassPlan.of(Graph.class, false).reader());
+        assertNull(ClassPlan.of(ChildPojo.class, false).reader());
+    }
+}
@@ -0,0 +1,70 @@
+package net.vanfleteren.nonulls.validator.internal;
+
+import com.sun.net.httpserver.HttpPrincipal;
+import net.vanfleteren.nonulls.validator.NullValidator;
+import org.junit.jupiter.api.Test;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PropertyTest {
+
+    record Line(String sku) {}
+
+    static class Pojo {
+        private String name = "name";
+    }
+
+    @Test
+    void memberOfAnOpenPackage_isReadThroughAPrivateLookupInItsClass() throws Exception {
+        Method accessor = Line.class.getDeclaredMethod("sku");
+        Field field = Pojo.class.getDeclaredField("name");
+
+        MethodHandles.Lookup lookup = Property.lookupFor(field);
+
+        assertEquals(Pojo.class, lookup.lookupClass());
+        assertTrue(lookup.hasFullPrivilegeAccess());
+        assertEquals("a", Property.ofAccessor(accessor).read(new Line("a")));
+        Property name = Property.ofField(field);
+        assertEquals("name", name.read(new Pojo()));
+        assertTrue(name.writable());
+    }
+
+    @Test
+    void publicMemberOfAPackageThatIsntOpen_isMadeAccessible() throws Exception {
+        // java.lang is exported, but not open to the tests
+        Method strip = String.class.getMethod("strip");
+
+        MethodHandles.Lookup lookup = Property.lookupFor(strip);
+
+        assertEquals(Property.class, lookup.lookupClass());
+        assertEquals("a", Property.ofAccessor(strip).read(" a "));
+    }
+
+    @Test
+    void privateMemberOfAPackageThatIsntOpen_onlyGetsThePublicLookup_andCantBeRead() throws Exception {
+        Field value = String.class.getDeclaredField("value");
+
+        MethodHandles.Lookup lookup = Property.lookupFor(value);
+
+        assertEquals(MethodHandles.Lookup.UNCONDITIONAL, lookup.lookupModes());
+        Property property = Property.ofField(value);
+        assertThrows(IllegalAccessException.class, () -> property.read("a"));
+        assertFalse(property.writable());
+    }
+
+    @Test
+    void inaccessibleField_failsTheValidation_withItsPath() {
+        // a pojo in a package of the jdk.httpserver module that is exported, but not open
+        HttpPrincipal principal = new HttpPrincipal("user", "realm");
+
+        RuntimeException e = assertThrows(RuntimeException.class, () -> NullValidator.findNullPaths(principal));
+
+        assertNull(ClassPlan.of(HttpPrincipal.class).reader());
+        assertEquals("Failed to access field: username at root. Is the field accessible?", e.getMessage());
+        assertInstanceOf(IllegalAccessException.class, e.getCause());
+    }
+}
@@ -0,0 +1,64 @@
+package net.vanfleteren.nonulls.validator.internal;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ScratchPoolTest {
+
+    @Test
+    void releasedObjects_areReused() {
+        AtomicInteger created = new AtomicInteger();
+        ScratchPool<Object> pool = new ScratchPool<>(1, () -> {
+            created.incrementAndGet();
+            return new Object();
+        });
+
+        Object first = pool.acquire();
+        pool.release(first);
+
+        assertSame(first, pool.acquire());
+        assertEquals(1, created.get());
+    }
+
+    @Test
+    void acquiredObjects_areNotShared() {
+        ScratchPool<Object> pool = new ScratchPool<>(1, Object::new);
+
+        Object first = pool.acquire();
+        Object second = pool.acquire();
+
+        assertNotSame(first, second);
+    }
+
+    @Test
+    void objectsReleasedToAFullPool_areDropped() {
+        ScratchPool<Object> pool = new ScratchPool<>(1, Object::new);
+        Object first = pool.acquire();
+        Object second = pool.acquire();
+
+        pool.release(first);
+        pool.release(second);
+
+        assertSame(first, pool.acquire());
+        assertNotSame(second, pool.acquire());
+    }
+
+    @Test
+    void virtualThreads_reuseObjectsReleasedByOtherThreads() throws InterruptedException {
+        ScratchPool<Object> pool = new ScratchPool<>(1, Object::new);
+        Object[] seen = new Object[2];
+
+        for (int i = 0; i < seen.length; i++) {
+            int index = i;
+            Thread.ofVirtual().start(() -> {
+                seen[index] = pool.acquire();
+                pool.release(seen[index]);
+            }).join();
+        }
+
+        assertSame(seen[0], seen[1]);
+    }
+}
@@ -0,0 +1,40 @@
+package net.vanfleteren.nonulls.validator.internal;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ValidatedCacheTest {
+
+    @Test
+    void containsOnlyAddedObjects_byIdentity() {
+        ValidatedCache cache = new ValidatedCache(16);
+        String added = new String("a");
+
+        cache.add(added);
+
+        assertTrue(cache.contains(added));
+        assertFalse(cache.contains(new String("a")));
+    }
+
+    @Test
+    void isBounded() {
+        ValidatedCache cache = new ValidatedCache(4);
+        Object[] objects = new Object[1000];
+        for (int i = 0; i < objects.length; i++) {
+            objects[i] = new Object();
+            cache.add(objects[i]);
+        }
+
+        int cached = 0;
+        for (Object obj : objects) {
+            cached += cache.contains(obj) ? 1 : 0;
+        }
+        assertTrue(cached <= 4);
+    }
+
+    @Test
+    void maxSize_mustBePositive() {
+        assertThrows(IllegalArgumentException.class, () -> new ValidatedCache(0));
+    }
+}
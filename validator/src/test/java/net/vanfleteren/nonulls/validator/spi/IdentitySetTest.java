@@ -0,0 +1,52 @@
+package net.vanfleteren.nonulls.validator.spi;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IdentitySetTest {
+
+    @Test
+    void equalButDistinctObjects_areDifferentMembers() {
+        IdentitySet set = new IdentitySet();
+        String a = new String("x");
+        String b = new String("x");
+
+        assertTrue(set.add(a));
+        assertFalse(set.add(a));
+        assertTrue(set.contains(a));
+        assertFalse(set.contains(b));
+        assertTrue(set.add(b));
+        assertEquals(2, set.size());
+    }
+
+    @Test
+    void growsBeyondItsInitialCapacity() {
+        IdentitySet set = new IdentitySet();
+        List<Object> objects = new ArrayList<>();
+        for (int i = 0; i < 10_000; i++) {
+            Object obj = new Object();
+            objects.add(obj);
+            assertTrue(set.add(obj));
+        }
+
+        assertEquals(10_000, set.size());
+        assertTrue(objects.stream().allMatch(set::contains));
+    }
+
+    @Test
+    void clear_allowsReuse() {
+        IdentitySet set = new IdentitySet();
+        Object obj = new Object();
+        set.add(obj);
+
+        set.clear();
+
+        assertTrue(set.isEmpty());
+        assertFalse(set.contains(obj));
+        assertTrue(set.add(obj));
+    }
+}
@@ -0,0 +1,135 @@
+package net.vanfleteren.nonulls.validator.spi;
+
+import net.vanfleteren.nonulls.validator.ConfiguredNullValidator;
+import net.vanfleteren.nonulls.validator.NullReport;
+import net.vanfleteren.nonulls.validator.NullValidator;
+import net.vanfleteren.nonulls.validator.UninitializedPolicy;
+import org.jspecify.annotations.Nullable;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LazyBoundaryTest {
+
+    /**
+     * A reference that is only loaded when it is asked for, like an ORM proxy.
+     */
+    static final class LazyRef<T> {
+        private final Supplier<T> loader;
+        private @Nullable T value;
+        private boolean loaded;
+        private int loads;
+
+        LazyRef(Supplier<T> loader) {
+            this.loader = loader;
+        }
+
+        @Nullable T get() {
+            if (!loaded) {
+                value = loader.get();
+                loaded = true;
+                loads++;
+            }
+            return value;
+        }
+    }
+
+    /**
+     * Registered in META-INF/services.
+     */
+    public static final class LazyRefBoundary implements LazyBoundary {
+        @Override
+        public boolean canHandle(Class<?> clazz) {
+            return clazz == LazyRef.class;
+        }
+
+        @Override
+        public boolean isInitialized(Object obj) {
+            return ((LazyRef<?>) obj).loaded;
+        }
+
+        @Override
+        public @Nullable Object unwrap(Object obj) {
+            return ((LazyRef<?>) obj).get();
+        }
+    }
+
+    record Customer(String name, String email) {}
+
+    record Order(String id, LazyRef<Customer> customer) {}
+
+    record Shipment(Order order, LazyRef<Customer> carrier) {}
+
+    @Test
+    void uninitialized_isSkipped_withoutLoadingIt() {
+        LazyRef<Customer> customer = new LazyRef<>(() -> new Customer(null, null));
+        Order order = new Order("o1", customer);
+
+        NullReport report = NullValidator.validate(order);
+
+        assertTrue(report.nullPaths().isEmpty());
+        assertFalse(report.isTruncated());
+        assertEquals(0, customer.loads);
+    }
+
+    @Test
+    void uninitialized_isReported_whenConfigured() {
+        LazyRef<Customer> customer = new LazyRef<>(() -> new Customer("name", "email"));
+        ConfiguredNullValidator validator = NullValidator.builder().uninitialized(UninitializedPolicy.REPORT).build();
+
+        assertEquals(List.of("root.customer"), validator.findNullPaths(new Order("o1", customer)));
+        assertEquals(0, customer.loads);
+    }
+
+    @Test
+    void initialized_isWalkedAtTheSamePath() {
+        LazyRef<Customer> customer = new LazyRef<>(() -> new Customer("name", null));
+        customer.get();
+
+        assertEquals(List.of("root.customer.email"), NullValidator.findNullPaths(new Order("o1", customer)));
+        assertEquals(List.of("root.customer.email"),
+                NullValidator.builder().uninitialized(UninitializedPolicy.REPORT).build().findNullPaths(new Order("o1", customer)));
+        assertEquals(1, customer.loads);
+    }
+
+    @Test
+    void initialized_toNothing_isReportedAsANull() {
+        LazyRef<Customer> customer = new LazyRef<>(() -> null);
+        customer.get();
+
+        assertEquals(List.of("root.customer"), NullValidator.findNullPaths(new Order("o1", customer)));
+        assertEquals(List.of("root.customer"), NullValidator.sanitize(new Order("o1", customer)).unrepaired().nullPaths());
+    }
+
+    @Test
+    void uninitialized_outOfScope_isNotReported() {
+        LazyRef<Customer> customer = new LazyRef<>(() -> new Customer("name", "email"));
+        LazyRef<Customer> carrier = new LazyRef<>(() -> new Customer("name", "email"));
+        ConfiguredNullValidator validator = NullValidator.builder()
+                .uninitialized(UninitializedPolicy.REPORT)
+                .scope("order.**")
+                .build();
+
+        assertEquals(List.of("root.order.customer"), validator.findNullPaths(new Shipment(new Order("o1", customer), carrier)));
+    }
+
+    @Test
+    void uninitialized_inLargeCollections_isNotLoadedInParallel() {
+        List<LazyRef<Customer>> customers = new ArrayList<>();
+        for (int i = 0; i < 20_000; i++) {
+            LazyRef<Customer> customer = new LazyRef<>(() -> new Customer(null, null));
+            if (i % 2 == 0) {
+                customer.get();
+            }
+            customers.add(customer);
+        }
+        ConfiguredNullValidator validator = NullValidator.builder().parallel(true).maxReportedNulls(100_000).build();
+
+        assertEquals(20_000, validator.findNullPaths(customers).size());
+        assertEquals(10_000, customers.stream().filter(customer -> customer.loads == 0).count());
+    }
+}
@@ -0,0 +1,66 @@
+package net.vanfleteren.nonulls.validator.spi;
+
+import net.vanfleteren.nonulls.validator.NullPath;
+import net.vanfleteren.nonulls.validator.NullReport;
+import net.vanfleteren.nonulls.validator.NullValidator;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class NullSinkTest {
+
+    record Item(String name, String sku) {}
+
+    private static List<Item> items(int count) {
+        List<Item> items = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            items.add(new Item(null, "sku"));
+        }
+        return items;
+    }
+
+    @Test
+    void counting_countsEveryNull() {
+        NullSink.Counting counting = NullSink.counting();
+
+        assertNull(NullValidator.validate(items(1000), counting));
+
+        assertEquals(1000, counting.count());
+    }
+
+    @Test
+    void first_keepsTheFirstNulls_andStopsTheValidation() {
+        NullSink.First first = NullSink.first(2);
+
+        NullReport.Truncation truncation = NullValidator.builder().build().validate(items(1000), first);
+
+        assertNull(truncation);
+        assertEquals(List.of(NullPath.root().index(0).property("name"), NullPath.root().index(1).property("name")), first.paths());
+    }
+
+    @Test
+    void first_needsAtLeastOnePath() {
+        assertThrows(IllegalArgumentException.class, () -> NullSink.first(0));
+    }
+
+    @Test
+    void lambda_receivesEveryNullInOrder() {
+        List<String> received = new ArrayList<>();
+
+        NullValidator.validate(List.of(new Item(null, null), new Item("a", null)), path -> received.add(path.toString()));
+
+        assertEquals(List.of("root[0].name", "root[0].sku", "root[1].sku"), received);
+    }
+
+    @Test
+    void sinkThatIsDone_stopsAParallelValidation() {
+        NullSink.First first = NullSink.first(1);
+
+        NullValidator.parallel().validate(items(100_000), first);
+
+        assertEquals(List.of(NullPath.root().index(0).property("name")), first.paths());
+    }
+}
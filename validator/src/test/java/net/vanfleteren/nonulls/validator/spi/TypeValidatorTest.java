@@ -0,0 +1,96 @@
+package net.vanfleteren.nonulls.validator.spi;
+
+import net.vanfleteren.nonulls.validator.NullPath;
+import net.vanfleteren.nonulls.validator.NullValidator;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TypeValidatorTest {
+
+    record Item(String name) {}
+
+    /**
+     * A container the validator has no idea how to walk by itself.
+     */
+    static final class Bag {
+        private final Object[] contents;
+
+        Bag(Object... contents) {
+            this.contents = contents;
+        }
+    }
+
+    static final class Plain {
+        String name;
+    }
+
+    /**
+     * Registered in META-INF/services, counts how often it is asked whether it handles a class.
+     */
+    public static final class BagValidator implements TypeValidator {
+        static final Map<Class<?>, AtomicInteger> ASKED = new ConcurrentHashMap<>();
+        static final AtomicInteger PASSED = new AtomicInteger();
+
+        @Override
+        public boolean canHandle(Class<?> clazz) {
+            ASKED.computeIfAbsent(clazz, c -> new AtomicInteger()).incrementAndGet();
+            return clazz == Bag.class;
+        }
+
+        @Override
+        public void validate(Object obj, NullPath path, IdentitySet visited, NullSink nullSink, RecursiveValidator recursiveValidator) {
+            Object[] contents = ((Bag) obj).contents;
+            for (int i = 0; i < contents.length; i++) {
+                PASSED.incrementAndGet();
+                recursiveValidator.validate(contents[i], path.index(i), visited, nullSink);
+            }
+        }
+    }
+
+    private static int asked(Class<?> clazz) {
+        AtomicInteger asked = BagValidator.ASKED.get(clazz);
+        return asked != null ? asked.get() : 0;
+    }
+
+    @Test
+    void customValidator_walksTheClassesItHandles() {
+        assertEquals(List.of("root[1]", "root[2].name"), NullValidator.findNullPaths(new Bag("a", null, new Item(null))));
+    }
+
+    @Test
+    void customValidators_areLookedUpOncePerClass() {
+        for (int i = 0; i < 3; i++) {
+            assertEquals(List.of("root[0]"), NullValidator.findNullPaths(new Bag(null, "a")));
+            assertEquals(List.of("root.name"), NullValidator.findNullPaths(new Plain()));
+            assertEquals(List.of("root.name"), NullValidator.builder().build().findNullPaths(new Plain()));
+        }
+
+        assertEquals(1, asked(Bag.class));
+        assertEquals(1, asked(Plain.class));
+    }
+
+    @Test
+    void nullBeforeAnyChildToWalk_stopsTheCustomValidatorRightAway() {
+        Bag bag = new Bag("a", null, "b", new Item(null), null);
+        int passed = BagValidator.PASSED.get();
+
+        assertFalse(NullValidator.hasNoNulls(bag));
+
+        assertEquals(2, BagValidator.PASSED.get() - passed);
+        assertEquals(List.of("root[1]", "root[3].name", "root[4]"), NullValidator.findNullPaths(bag));
+    }
+
+    @Test
+    void nullAfterAChildToWalk_isReportedAfterTheNullsInThatChild() {
+        Bag bag = new Bag(new Item(null), null);
+
+        assertEquals(List.of("root[0].name", "root[1]"), NullValidator.findNullPaths(bag));
+        assertEquals("root[0].name", NullValidator.findFirstNullPath(bag).orElseThrow());
+    }
+}